@@ -0,0 +1,84 @@
+package os.takehome.benchmark;
+
+import os.takehome.component.Component;
+import os.takehome.component.ComponentGroup;
+import os.takehome.component.ComponentStatus;
+import os.takehome.component.GroupStorage;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Утримувана купа на компонент для кожного способу зберігання групи (GroupStorage).
+ * JMH вимірює час, а не утримувану пам'ять, тож це звичайна програма:
+ *
+ *   java -Xmx4g -cp target/benchmarks.jar os.takehome.benchmark.ComponentStoreFootprint [компонентів]
+ *
+ * Для кожного сховища будується група з усіма компонентами у двох станах: щойно створені (new) і після
+ * завершеного запуску з результатами, як їх залишає run. Купа вимірюється після повного GC.
+ */
+public class ComponentStoreFootprint {
+    private static final String SYMBOLS = "FBPS";
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        System.out.println("Retained heap per component, " + count + " components per group");
+        System.out.printf(Locale.ROOT, "%-10s %12s %12s%n", "storage", "created", "completed");
+        for (GroupStorage storage : GroupStorage.values()) {
+            long[] bytes = measure(storage, count);
+            System.out.printf(Locale.ROOT, "%-10s %12.1f %12.1f%n", storage.name().toLowerCase(),
+                    (double) bytes[0] / count, (double) bytes[1] / count);
+        }
+    }
+
+    // Окремий метод, щоб група попереднього сховища вже була недосяжною під час вимірювання базової лінії
+    private static long[] measure(GroupStorage storage, int count) {
+        long baseline = usedHeap();
+        ComponentGroup group = new ComponentGroup(0, storage);
+        create(group, count);
+        long created = usedHeap() - baseline;
+        complete(group, count);
+        long completed = usedHeap() - baseline;
+        // Група має лишатися досяжною до останнього вимірювання
+        if (group.getComponents().size() != count) throw new IllegalStateException("Lost components");
+        return new long[]{created, completed};
+    }
+
+    // Як послідовність команд new: кожен четвертий компонент має власний ліміт, кожен восьмий — джерело
+    private static void create(ComponentGroup group, int count) {
+        Map<Integer, Component> components = group.getComponents();
+        for (int i = 0; i < count; i++) {
+            Component component = new Component(i, SYMBOLS.charAt(i % SYMBOLS.length()));
+            if (i % 4 == 0) component.setTimeLimit(30);
+            if (i % 8 == 7) component.setSource(i - 1);
+            components.put(i, component);
+        }
+    }
+
+    // Як завершений run: F і B повертають точні Long, P і S — double
+    private static void complete(ComponentGroup group, int count) {
+        for (int i = 0; i < count; i++) {
+            Component component = group.restartComponent(i);
+            Number result = component.getSymbol() == 'F' || component.getSymbol() == 'B' ? (Number) (long) i : (Number) (i * 0.5);
+            component.setResult(CompletableFuture.completedFuture(result));
+            component.setStatus(ComponentStatus.COMPLETED);
+        }
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // Кілька проходів GC, доки результат не перестане зменшуватися
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
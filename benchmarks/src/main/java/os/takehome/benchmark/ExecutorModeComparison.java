@@ -0,0 +1,97 @@
+package os.takehome.benchmark;
+
+import os.takehome.component.CalculationComponent;
+import os.takehome.component.ComponentFactory;
+import os.takehome.taskmanager.ExecutorMode;
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+/*
+ * Порівняння режимів виконання: скільки компонентів одночасно перебувають в обчисленні
+ * і скільки пам'яті займає кожен з них. Кожен режим запускається в окремій JVM:
+ *
+ *   java -cp target/benchmarks.jar os.takehome.benchmark.ExecutorModeComparison platform 10000
+ *   java -cp target/benchmarks.jar os.takehome.benchmark.ExecutorModeComparison virtual 10000   (Java 21+)
+ */
+public class ExecutorModeComparison {
+    public static void main(String[] args) throws Exception {
+        // Кеш вимкнено, щоб однакові запити не об'єднувалися в одне обчислення
+        System.setProperty("taskmanager.cache.maxSize", "0");
+        ExecutorMode mode = ExecutorMode.valueOf(args.length > 0 ? args[0].toUpperCase() : "PLATFORM");
+        int components = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        long timeoutSeconds = args.length > 2 ? Long.parseLong(args[2]) : 60;
+
+        CalculationComponent calculator = ComponentFactory.getComponent('S');
+        long heapBefore = usedHeap();
+        long rssBefore = residentSetKb();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        ExecutorService executor = mode.newExecutor();
+        CountDownLatch inFlight = new CountDownLatch(components);
+        long start = System.nanoTime();
+        int submitted = 0;
+        String failure = null;
+        try {
+            for (int i = 0; i < components; i++) {
+                executor.execute(() -> {
+                    inFlight.countDown();
+                    try {
+                        calculator.calculate(2);
+                    } catch (RuntimeException e) {
+                        // Перервано під час завершення
+                    }
+                });
+                submitted++;
+            }
+            if (!inFlight.await(timeoutSeconds, TimeUnit.SECONDS)) {
+                failure = "timed out";
+            }
+        } catch (OutOfMemoryError | RejectedExecutionException e) {
+            failure = e.toString();
+        }
+        long rampMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long reached = components - inFlight.getCount();
+
+        long heapAfter = usedHeap();
+        long rssAfter = residentSetKb();
+        int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+        executor.shutdownNow();
+
+        System.out.println("mode=" + mode.name().toLowerCase() +
+                " java=" + System.getProperty("java.version") +
+                " requested=" + components +
+                " submitted=" + submitted +
+                " concurrent=" + reached +
+                " rampMs=" + rampMillis +
+                " platformThreads=" + (threadsAfter - threadsBefore) +
+                " heapBytesPerComponent=" + (reached == 0 ? 0 : (heapAfter - heapBefore) / reached) +
+                " rssBytesPerComponent=" + (reached == 0 || rssBefore < 0 ? "n/a" : String.valueOf((rssAfter - rssBefore) * 1024 / reached)) +
+                (failure == null ? "" : " failure=" + failure));
+        System.exit(0);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        return heap.getUsed();
+    }
+
+    // Стеки платформних потоків живуть поза купою, тому дивимося і на RSS процесу (лише Linux)
+    private static long residentSetKb() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,37 @@
+package os.takehome.benchmark.jmh;
+
+import os.takehome.component.CalculationComponent;
+import os.takehome.component.ComponentFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/*
+ * Вартість самих обчислень без штучних затримок і без кешу результатів.
+ * Властивості задаються до завантаження ComponentFactory, тому вони передаються в JVM форку.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Dtaskmanager.simulatedDelay=false", "-Dtaskmanager.cache.maxSize=0"})
+@State(Scope.Benchmark)
+public class CalculatorBenchmark {
+    @Param({"F", "B", "P", "S"})
+    public String symbol;
+
+    @Param({"10", "1000", "1000003"})
+    public int input;
+
+    private CalculationComponent calculator;
+
+    @Setup
+    public void setup() {
+        calculator = ComponentFactory.getComponent(symbol.charAt(0));
+    }
+
+    @Benchmark
+    public double calculate() {
+        return calculator.calculate(input);
+    }
+}
@@ -0,0 +1,73 @@
+package os.takehome.benchmark.jmh;
+
+import os.takehome.transport.Frame;
+import os.takehome.transport.FrameCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.*;
+import java.util.concurrent.*;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FrameCodecBenchmark {
+    @Param({"1", "256", "65536"})
+    public int batchSize;
+
+    private Frame request;
+    private Frame batchRequest;
+    private Frame batchResult;
+    private ByteBuffer encodedRequest;
+    private ByteBuffer encodedBatchResult;
+    private ByteArrayOutputStream streamBuffer;
+    private DataOutputStream stream;
+
+    @Setup
+    public void setup() {
+        int[] inputs = new int[batchSize];
+        double[] values = new double[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            inputs[i] = i;
+            values[i] = i * 1.5;
+        }
+        request = Frame.request(42, 1, 3, 'F', 17, Frame.NO_FLAGS);
+        batchRequest = Frame.batchRequest(43, 1, 4, 'P', inputs, Frame.NO_FLAGS);
+        batchResult = Frame.batchResult(43, 0, values);
+        encodedRequest = FrameCodec.encode(request);
+        encodedBatchResult = FrameCodec.encode(batchResult);
+        streamBuffer = new ByteArrayOutputStream(FrameCodec.LENGTH_FIELD + FrameCodec.MAX_FRAME_SIZE / 16);
+        stream = new DataOutputStream(streamBuffer);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeRequest() {
+        return FrameCodec.encode(request);
+    }
+
+    @Benchmark
+    public Frame decodeRequest() throws IOException {
+        return FrameCodec.decode(encodedRequest.duplicate());
+    }
+
+    @Benchmark
+    public ByteBuffer encodeBatchRequest() {
+        return FrameCodec.encode(batchRequest);
+    }
+
+    @Benchmark
+    public Frame decodeBatchResult() throws IOException {
+        return FrameCodec.decode(encodedBatchResult.duplicate());
+    }
+
+    // Блокуючий шлях (ClientConnection, ComponentServer) пише кадри через DataOutputStream
+    @Benchmark
+    public int writeRequestToStream() throws IOException {
+        streamBuffer.reset();
+        FrameCodec.write(stream, request);
+        return streamBuffer.size();
+    }
+}
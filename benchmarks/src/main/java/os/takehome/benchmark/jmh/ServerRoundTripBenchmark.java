@@ -0,0 +1,90 @@
+package os.takehome.benchmark.jmh;
+
+import os.takehome.taskmanager.ExecutorMode;
+import os.takehome.taskmanager.ServerManager;
+import os.takehome.transport.ClientConnection;
+import os.takehome.transport.TransportMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.*;
+
+/*
+ * Запит/відповідь через loopback до ServerManager: кадрування, мережевий стек, планування обчислень.
+ * Штучні затримки й кеш вимкнені, тож вимірюється лише накладна вартість шляху.
+ * Рівень паралелізму задається кількістю потоків JMH (-t) та кількістю запитів у польоті на потік.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Dtaskmanager.simulatedDelay=false", "-Dtaskmanager.cache.maxSize=0",
+        "-Dtaskmanager.port=18000"})
+@Threads(1)
+public class ServerRoundTripBenchmark {
+    @State(Scope.Benchmark)
+    public static class Server {
+        @Param({"NIO", "BLOCKING"})
+        public String transport;
+
+        @Param({"PLATFORM"})
+        public String executor;
+
+        ServerManager serverManager;
+
+        @Setup(Level.Trial)
+        public void start() {
+            serverManager = new ServerManager(TransportMode.valueOf(transport), ExecutorMode.valueOf(executor));
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            serverManager.shutdown();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        @Param({"1", "16", "128"})
+        public int inFlight;
+
+        ClientConnection connection;
+        CompletableFuture<?>[] calls;
+        int next;
+
+        @Setup(Level.Trial)
+        public void connect(Server server) throws IOException {
+            connection = new ClientConnection(new Socket("localhost", ServerManager.getPort()));
+            calls = new CompletableFuture<?>[inFlight];
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public double call(Client client) {
+        return client.connection.call(0, 0, 'B', client.next++ & 63).join();
+    }
+
+    // Конвеєрні запити по одному з'єднанню: inFlight запитів відправляються, потім очікуються всі
+    @Benchmark
+    public Object pipelined(Client client) {
+        for (int i = 0; i < client.inFlight; i++) {
+            client.calls[i] = client.connection.call(0, i, 'P', client.next++ & 1023);
+        }
+        return CompletableFuture.allOf(client.calls).join();
+    }
+
+    @Benchmark
+    public double[] batch(Client client) {
+        int[] inputs = new int[client.inFlight];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = client.next++ & 1023;
+        }
+        return client.connection.callBatch(0, 0, 'P', inputs, null).join();
+    }
+}
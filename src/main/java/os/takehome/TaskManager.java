@@ -1,38 +1,99 @@
 package os.takehome;
 
+import os.takehome.metrics.Metrics;
 import os.takehome.taskmanager.CommandProcessor;
 import os.takehome.taskmanager.ComponentGroupManager;
+import os.takehome.taskmanager.ExecutorMode;
+import os.takehome.taskmanager.LoadGenerator;
 import os.takehome.taskmanager.NotificationManager;
 import os.takehome.taskmanager.ServerManager;
+import os.takehome.transport.ConnectionPool;
+import os.takehome.transport.TransportMode;
+import os.takehome.transport.WorkerRegistry;
 
+import java.io.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 public class TaskManager {
     private final ComponentGroupManager groupManager;
     private final ServerManager serverManager;
     private final NotificationManager notificationManager;
     private final CommandProcessor commandProcessor;
+    private final ConnectionPool connectionPool;
+    private final WorkerRegistry workerRegistry;
+    private final AtomicBoolean shutDown = new AtomicBoolean();
 
     public TaskManager() {
-        this.serverManager = new ServerManager();
+        ExecutorMode executorMode = ExecutorMode.fromSystemProperty();
+        // Першим, щоб невідновлюваний журнал зупинив запуск ще до старту сервера
+        this.groupManager = new ComponentGroupManager(executorMode);
+        // Вбудований сервер можна вимкнути, якщо всі обчислення виконують окремі вузли (ComponentServer)
+        this.serverManager = Boolean.parseBoolean(System.getProperty("taskmanager.server.embedded", "true"))
+                ? new ServerManager(TransportMode.fromSystemProperty(), executorMode)
+                : null;
         this.notificationManager = new NotificationManager();
-        this.groupManager = new ComponentGroupManager();
-        this.commandProcessor = new CommandProcessor(groupManager, serverManager, notificationManager);
+        this.connectionPool = new ConnectionPool();
+        this.workerRegistry = new WorkerRegistry(WorkerRegistry.parse(
+                System.getProperty("taskmanager.workers", "localhost:" + ServerManager.getPort())), connectionPool);
+        this.commandProcessor = new CommandProcessor(groupManager, serverManager, notificationManager, connectionPool,
+                workerRegistry);
+        Metrics.registerMBeans();
     }
 
     public void processCommand(String command) {
         commandProcessor.processCommand(command);
     }
 
+    public void runHeadless(String[] args) throws Exception {
+        LoadGenerator loadGenerator = new LoadGenerator(commandProcessor, notificationManager);
+        if (args[0].equals("--script") && args.length == 2) {
+            loadGenerator.runScript(Paths.get(args[1]));
+        } else if (args[0].equals("--load")) {
+            loadGenerator.runGenerated();
+        } else {
+            throw new IllegalArgumentException("Usage: TaskManager [--script <file> | --load]");
+        }
+    }
+
+    // Викликається і з main, і з shutdown hook під час System.exit або після exit; закриваємо лише раз
     public void shutdown() {
+        if (!shutDown.compareAndSet(false, true)) return;
         System.out.println("Shutting down TaskManager...");
-        serverManager.shutdown();
+        workerRegistry.close();
+        connectionPool.close();
+        groupManager.shutdown();
+        if (serverManager != null) {
+            serverManager.shutdown();
+        }
+        notificationManager.shutdown();
     }
 
-    public static void main(String[] args) {
-        TaskManager manager = new TaskManager();
+    public static void main(String[] args) throws Exception {
+        TaskManager manager;
+        try {
+            manager = new TaskManager();
+        } catch (IllegalStateException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
         Runtime.getRuntime().addShutdownHook(new Thread(manager::shutdown));
 
+        if (args.length > 0) {
+            int status = 0;
+            try {
+                manager.runHeadless(args);
+            } catch (IllegalArgumentException | IOException e) {
+                System.err.println("Error: " + e.getMessage());
+                status = 1;
+            } finally {
+                manager.shutdown();
+            }
+            System.exit(status);
+        }
+
         Scanner scanner = new Scanner(System.in);
         System.out.println("Task Manager started. Enter commands:");
 
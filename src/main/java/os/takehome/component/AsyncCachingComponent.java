@@ -0,0 +1,35 @@
+package os.takehome.component;
+
+import java.util.concurrent.*;
+
+// Кеш для неблокуючих калькуляторів: промах запускає асинхронне обчислення, а не чекає на нього в потоці
+class AsyncCachingComponent extends CachingComponent implements AsyncCalculationComponent {
+    private final AsyncCalculationComponent delegate;
+    private final ResultCache cache;
+
+    AsyncCachingComponent(AsyncCalculationComponent delegate, ResultCache cache) {
+        super(delegate, cache);
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    // Запит із прогресом обчислюється окремо: спільне обчислення не може звітувати кожному учаснику
+    @Override
+    public CompletableFuture<Double> calculateAsync(int input, ProgressListener progress) {
+        if (progress == null) {
+            return cache.getAsync(delegate.getSymbol(), input, delegate::calculateExactAsync, Number::doubleValue);
+        }
+        Number cached = cache.getIfPresent(delegate.getSymbol(), input);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.doubleValue());
+        }
+        CompletableFuture<Double> computation = delegate.calculateAsync(input, progress);
+        computation.thenAccept(value -> cache.put(delegate.getSymbol(), input, value));
+        return computation;
+    }
+
+    @Override
+    public CompletableFuture<? extends Number> calculateExactAsync(int input) {
+        return cache.getAsync(delegate.getSymbol(), input, delegate::calculateExactAsync, value -> value);
+    }
+}
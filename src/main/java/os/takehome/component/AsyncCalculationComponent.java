@@ -0,0 +1,20 @@
+package os.takehome.component;
+
+import java.util.concurrent.*;
+
+/*
+ * Неблокуючий калькулятор: імітовані затримки виконуються як відкладені кроки на спільному таймері,
+ * тож обчислення не тримає потік, поки "рахує". Скасування future знімає запланований крок.
+ */
+public interface AsyncCalculationComponent extends CalculationComponent {
+    // progress (може бути null) отримує проміжне значення після кожної ітерації
+    CompletableFuture<Double> calculateAsync(int input, ProgressListener progress);
+
+    default CompletableFuture<Double> calculateAsync(int input) {
+        return calculateAsync(input, null);
+    }
+
+    default CompletableFuture<? extends Number> calculateExactAsync(int input) {
+        return calculateAsync(input);
+    }
+}
@@ -0,0 +1,32 @@
+package os.takehome.component;
+
+class CachingComponent implements CalculationComponent {
+    private final CalculationComponent delegate;
+    private final ResultCache cache;
+
+    CachingComponent(CalculationComponent delegate, ResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public double calculate(int input) {
+        return calculateExact(input).doubleValue();
+    }
+
+    // Звичайний і точний запити ділять один запис кешу: double отримується з точного значення
+    @Override
+    public Number calculateExact(int input) {
+        return cache.get(delegate.getSymbol(), input, delegate::calculateExact);
+    }
+
+    @Override
+    public long estimateMillis(int input) {
+        return cache.contains(delegate.getSymbol(), input) ? 0 : delegate.estimateMillis(input);
+    }
+
+    @Override
+    public char getSymbol() {
+        return delegate.getSymbol();
+    }
+}
@@ -1,29 +1,191 @@
 package os.takehome.component;
 
+import java.util.concurrent.*;
+
 public interface CalculationComponent {
     double calculate(int input);
     char getSymbol();
+
+    // Оцінка тривалості обчислення (мс); 0, якщо оцінка невідома
+    default long estimateMillis(int input) {
+        return 0;
+    }
+
+    // Точний результат (Long/BigInteger) для калькуляторів, що його підтримують; інакше — те саме, що calculate
+    default Number calculateExact(int input) {
+        return calculate(input);
+    }
+
+    default double[] calculateBatch(int[] inputs) {
+        double[] results = new double[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            results[i] = calculate(inputs[i]);
+        }
+        return results;
+    }
 }
 
-class FactorialComponent implements CalculationComponent {
-    @Override
-    public double calculate(int input) {
+// Штучні затримки вимикаються через -Dtaskmanager.simulatedDelay=false (бенчмарки, навантажувальні тести)
+final class SimulatedDelay {
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("taskmanager.simulatedDelay", "true"));
+    // Кроки імітованих обчислень короткі, тож кількох потоків таймера вистачає на десятки тисяч обчислень
+    static final ScheduledExecutorService TIMER = newTimer(Integer.getInteger("taskmanager.timerThreads", 2));
+
+    private SimulatedDelay() {}
+
+    private static ScheduledExecutorService newTimer(int threads) {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, "simulated-delay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Скасовані кроки одразу видаляються з черги таймера
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    static long estimate(long millis) {
+        return ENABLED ? millis : 0;
+    }
+
+    // Синхронний calculate чекає на асинхронне обчислення; переривання потоку скасовує його
+    static double await(CompletableFuture<Double> computation) {
         try {
-            // Симулюємо складні обчислення
-            long delay = 5000 + (input * 1000L); // Базова затримка 5 секунд + 1 секунда на кожну одиницю входу
-            Thread.sleep(delay);
-
-            double result = 1;
-            for(int i = 1; i <= input; i++) {
-                result *= i;
-                Thread.sleep(500); // Додаткова затримка на кожній ітерації
-            }
-            return result;
+            return computation.get();
         } catch (InterruptedException e) {
+            computation.cancel(true);
             Thread.currentThread().interrupt();
             throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
         }
     }
+}
+
+/*
+ * Імітоване обчислення як ланцюжок кроків: initialMillis до першої ітерації, stepMillis після кожної.
+ * Між кроками жоден потік не зайнятий; з вимкненими затримками ітерації виконуються одразу.
+ */
+final class SimulatedComputation extends CompletableFuture<Double> {
+    interface Iteration {
+        // Виконує наступну ітерацію; false, якщо обчислення завершено
+        boolean next();
+        // Після кожної ітерації — поточне часткове значення
+        double result();
+
+        default double residual() {
+            return Double.NaN;
+        }
+    }
+
+    private final Iteration iteration;
+    private final long stepMillis;
+    private final ProgressListener progress;
+    private int iterations;
+    private volatile Future<?> pending;
+
+    private SimulatedComputation(Iteration iteration, long stepMillis, ProgressListener progress) {
+        this.iteration = iteration;
+        this.stepMillis = stepMillis;
+        this.progress = progress;
+    }
+
+    static SimulatedComputation start(long initialMillis, long stepMillis, Iteration iteration, ProgressListener progress) {
+        SimulatedComputation computation = new SimulatedComputation(iteration, stepMillis, progress);
+        if (SimulatedDelay.ENABLED) {
+            computation.schedule(initialMillis);
+        } else {
+            computation.runToEnd();
+        }
+        return computation;
+    }
+
+    private void schedule(long millis) {
+        pending = SimulatedDelay.TIMER.schedule(this::step, millis, TimeUnit.MILLISECONDS);
+        // Скасування могло статися між плануванням і записом pending
+        if (isDone()) {
+            pending.cancel(false);
+        }
+    }
+
+    private void step() {
+        if (isDone()) return;
+        try {
+            if (iteration.next()) {
+                reportProgress();
+                schedule(stepMillis);
+            } else {
+                complete(iteration.result());
+            }
+        } catch (RuntimeException e) {
+            completeExceptionally(e);
+        }
+    }
+
+    private void runToEnd() {
+        try {
+            while (iteration.next()) {
+                reportProgress();
+            }
+            complete(iteration.result());
+        } catch (RuntimeException e) {
+            completeExceptionally(e);
+        }
+    }
+
+    private void reportProgress() {
+        iterations++;
+        if (progress != null) {
+            progress.onProgress(iterations, iteration.result(), iteration.residual());
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        Future<?> scheduled = pending;
+        if (cancelled && scheduled != null) {
+            scheduled.cancel(false);
+        }
+        return cancelled;
+    }
+}
+
+class FactorialComponent implements AsyncCalculationComponent {
+    @Override
+    public double calculate(int input) {
+        return SimulatedDelay.await(calculateAsync(input, null));
+    }
+
+    // Симулюємо складні обчислення: базова затримка 5 секунд + 1 секунда на кожну одиницю входу,
+    // і ще 0.5 секунди на кожній ітерації
+    @Override
+    public CompletableFuture<Double> calculateAsync(int input, ProgressListener progress) {
+        return SimulatedComputation.start(5000 + (input * 1000L), 500, new SimulatedComputation.Iteration() {
+            private double result = 1;
+            private int i = 1;
+
+            @Override
+            public boolean next() {
+                if (i > input) return false;
+                result *= i++;
+                return true;
+            }
+
+            @Override
+            public double result() {
+                return result;
+            }
+        }, progress);
+    }
+
+    @Override
+    public long estimateMillis(int input) {
+        return SimulatedDelay.estimate(Math.max(0, 5000 + input * 1000L) + Math.max(0, input) * 500L);
+    }
 
     @Override
     public char getSymbol() {
@@ -31,26 +193,39 @@ class FactorialComponent implements CalculationComponent {
     }
 }
 
-class FibonacciComponent implements CalculationComponent {
+class FibonacciComponent implements AsyncCalculationComponent {
     @Override
     public double calculate(int input) {
-        try {
-            Thread.sleep(7000); // Базова затримка 7 секунд
+        return SimulatedDelay.await(calculateAsync(input, null));
+    }
 
-            if (input <= 1) return input;
-            double prev = 0, current = 1;
+    // Базова затримка 7 секунд і 0.8 секунди на кожній ітерації
+    @Override
+    public CompletableFuture<Double> calculateAsync(int input, ProgressListener progress) {
+        return SimulatedComputation.start(7000, 800, new SimulatedComputation.Iteration() {
+            private double prev = 0, current = 1;
+            private int i = 2;
 
-            for (int i = 2; i <= input; i++) {
-                Thread.sleep(800); // Затримка на кожній ітерації
+            @Override
+            public boolean next() {
+                if (input <= 1 || i > input) return false;
                 double temp = current;
                 current = prev + current;
                 prev = temp;
+                i++;
+                return true;
             }
-            return current;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
-        }
+
+            @Override
+            public double result() {
+                return input <= 1 ? input : current;
+            }
+        }, progress);
+    }
+
+    @Override
+    public long estimateMillis(int input) {
+        return SimulatedDelay.estimate(7000 + Math.max(0, input - 1) * 800L);
     }
 
     @Override
@@ -59,22 +234,38 @@ class FibonacciComponent implements CalculationComponent {
     }
 }
 
-class PrimeCheckComponent implements CalculationComponent {
+class PrimeCheckComponent implements AsyncCalculationComponent {
     @Override
     public double calculate(int input) {
-        try {
-            Thread.sleep(6000); // Базова затримка 6 секунд
+        return SimulatedDelay.await(calculateAsync(input, null));
+    }
+
+    // Базова затримка 6 секунд і 1 секунда на кожній перевірці дільника
+    @Override
+    public CompletableFuture<Double> calculateAsync(int input, ProgressListener progress) {
+        return SimulatedComputation.start(6000, 1000, new SimulatedComputation.Iteration() {
+            private double result = input <= 1 ? 0 : 1;
+            private int i = 2;
 
-            if (input <= 1) return 0;
-            for (int i = 2; i <= Math.sqrt(input); i++) {
-                Thread.sleep(1000); // Затримка на кожній перевірці
-                if (input % i == 0) return 0;
+            @Override
+            public boolean next() {
+                if (result == 0 || i > Math.sqrt(input)) return false;
+                if (input % i == 0) result = 0;
+                i++;
+                return true;
             }
-            return 1;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
-        }
+
+            @Override
+            public double result() {
+                return result;
+            }
+        }, progress);
+    }
+
+    @Override
+    public long estimateMillis(int input) {
+        // Верхня межа: для простого числа перевіряються всі дільники до кореня
+        return SimulatedDelay.estimate(6000 + Math.max(0, (long) Math.sqrt(Math.max(input, 0)) - 1) * 1000L);
     }
 
     @Override
@@ -83,33 +274,55 @@ class PrimeCheckComponent implements CalculationComponent {
     }
 }
 
-class SqrtComponent implements CalculationComponent {
+class SqrtComponent implements AsyncCalculationComponent {
+    private static final int ITERATIONS = 10;
+
     @Override
     public double calculate(int input) {
-        try {
-            // Симулюємо складні обчислення методом Ньютона
-            Thread.sleep(8000); // Базова затримка 8 секунд
-
-            double x = input;
-            double root;
-            int iterations = 10;
-
-            for(int i = 0; i < iterations; i++) {
-                Thread.sleep(500); // Затримка на кожній ітерації
-                root = 0.5 * (x + (input / x));
-                if (Math.abs(root - x) < 0.0001) break;
-                x = root;
+        return SimulatedDelay.await(calculateAsync(input, null));
+    }
+
+    // Симулюємо складні обчислення методом Ньютона: базова затримка 8 секунд і 0.5 секунди на ітерацію
+    @Override
+    public CompletableFuture<Double> calculateAsync(int input, ProgressListener progress) {
+        return SimulatedComputation.start(8000, 500, new SimulatedComputation.Iteration() {
+            private double x = input;
+            private int iterations;
+            private boolean converged;
+
+            @Override
+            public boolean next() {
+                if (converged || iterations == ITERATIONS) return false;
+                double root = 0.5 * (x + (input / x));
+                iterations++;
+                if (Math.abs(root - x) < 0.0001) {
+                    converged = true;
+                } else {
+                    x = root;
+                }
+                return true;
             }
 
-            return x;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
-        }
+            @Override
+            public double result() {
+                return x;
+            }
+
+            // Нев'язка Ньютона: наскільки квадрат поточного наближення відрізняється від входу
+            @Override
+            public double residual() {
+                return Math.abs(x * x - input);
+            }
+        }, progress);
+    }
+
+    @Override
+    public long estimateMillis(int input) {
+        return SimulatedDelay.estimate(8000 + ITERATIONS * 500L);
     }
 
     @Override
     public char getSymbol() {
         return 'S';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,367 @@
+package os.takehome.component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/*
+ * Компоненти групи в примітивних стовпцях, індексованих номером компонента (номери щільні: 0..size-1).
+ * Журнал може відтворити компонент раніше за менші номери; до їх появи такі рядки — пропуски (символ HOLE).
+ * Завершений результат Long або Double зберігається як 8 байтів у стовпці; у бічних таблицях лишаються
+ * тільки незавершені, невдалі та BigInteger-результати, пакетні результати і проміжний прогрес.
+ *
+ * get() повертає легке представлення рядка. Кожен restart() дає рядку нове покоління (унікальне в межах
+ * таблиці, навіть після clear), тож записи через представлення попереднього запуску (запізнілі колбеки) ігноруються.
+ * Колбеки пишуть з потоків пулу, а масиви ростуть з потоку команд, тому доступ до стовпців синхронізований.
+ */
+final class ColumnarComponents extends AbstractMap<Integer, Component> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+    private static final char HOLE = 0;
+
+    private static final byte RESULT_NONE = 0;
+    private static final byte RESULT_DOUBLE = 1;
+    private static final byte RESULT_LONG = 2;
+    private static final byte RESULT_OTHER = 3; // future у бічній таблиці
+
+    private static final ComponentStatus[] STATUSES = ComponentStatus.values();
+
+    private int size; // рядків разом з пропусками
+    private int holes;
+    private int lastGeneration;
+    private char[] symbols;
+    private byte[] statuses;
+    private int[] timeLimits;
+    private int[] sources;
+    private int[] generations;
+    private byte[] resultKinds;
+    private long[] resultBits;
+
+    private final Map<Integer, Future<Number>> otherResults;
+    private final Map<Integer, Future<double[]>> batchResults;
+    private final Map<Integer, String> progress;
+
+    ColumnarComponents() {
+        allocate(INITIAL_CAPACITY);
+        this.otherResults = new ConcurrentHashMap<>();
+        this.batchResults = new ConcurrentHashMap<>();
+        this.progress = new ConcurrentHashMap<>();
+    }
+
+    private void allocate(int capacity) {
+        symbols = symbols == null ? new char[capacity] : Arrays.copyOf(symbols, capacity);
+        statuses = statuses == null ? new byte[capacity] : Arrays.copyOf(statuses, capacity);
+        timeLimits = timeLimits == null ? new int[capacity] : Arrays.copyOf(timeLimits, capacity);
+        sources = sources == null ? new int[capacity] : Arrays.copyOf(sources, capacity);
+        generations = generations == null ? new int[capacity] : Arrays.copyOf(generations, capacity);
+        resultKinds = resultKinds == null ? new byte[capacity] : Arrays.copyOf(resultKinds, capacity);
+        resultBits = resultBits == null ? new long[capacity] : Arrays.copyOf(resultBits, capacity);
+    }
+
+    @Override
+    public synchronized int size() {
+        return size - holes;
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return key instanceof Integer && contains((Integer) key);
+    }
+
+    synchronized boolean contains(int index) {
+        return index >= 0 && index < size && symbols[index] != HOLE;
+    }
+
+    @Override
+    public synchronized Component get(Object key) {
+        return containsKey(key) ? new Row((Integer) key, generations[(Integer) key]) : null;
+    }
+
+    // Наявний рядок перезаписується значеннями компонента; номер за кінцем лишає пропуски до нього
+    @Override
+    public synchronized Component put(Integer key, Component component) {
+        int index = key;
+        if (index < 0) throw new IllegalArgumentException("Invalid component index: " + index);
+        Component previous = containsKey(index) ? new Row(index, generations[index]) : null;
+        if (index >= size) {
+            if (index >= symbols.length) {
+                allocate(Math.max(symbols.length * 2, index + 1));
+            }
+            Arrays.fill(symbols, size, index, HOLE);
+            holes += index - size;
+            size = index + 1;
+        } else if (previous == null) {
+            holes--;
+        }
+        int generation = generations[index] = ++lastGeneration;
+        symbols[index] = component.getSymbol();
+        timeLimits[index] = orNone(component.getTimeLimit());
+        sources[index] = orNone(component.getSource());
+        statuses[index] = (byte) component.getStatus().ordinal();
+        resultKinds[index] = RESULT_NONE;
+        otherResults.remove(index);
+        batchResults.remove(index);
+        progress.remove(index);
+        setResult(index, generation, component.getResult());
+        setBatchResult(index, generation, component.getBatchResult());
+        return previous;
+    }
+
+    // Повертає представлення збереженого рядка, а не переданий об'єкт, щоб подальші зміни потрапили в стовпці
+    @Override
+    public Component computeIfAbsent(Integer key, Function<? super Integer, ? extends Component> mapping) {
+        synchronized (this) {
+            Component existing = get(key);
+            if (existing != null) return existing;
+            put(key, mapping.apply(key));
+            return get(key);
+        }
+    }
+
+    @Override
+    public synchronized Component remove(Object key) {
+        throw new UnsupportedOperationException("Components cannot be removed from a group");
+    }
+
+    // Масиви повертаються до початкового розміру, щоб очищена велика група не тримала пам'ять
+    @Override
+    public synchronized void clear() {
+        symbols = null;
+        statuses = null;
+        timeLimits = null;
+        sources = null;
+        generations = null;
+        resultKinds = null;
+        resultBits = null;
+        allocate(INITIAL_CAPACITY);
+        size = 0;
+        holes = 0;
+        otherResults.clear();
+        batchResults.clear();
+        progress.clear();
+    }
+
+    // Новий запуск компонента: визначення (символ, ліміт, джерело) лишається, стан і результати скидаються
+    synchronized Component restart(int index) {
+        if (!contains(index)) throw new IllegalArgumentException("Component not found: " + index);
+        int generation = generations[index] = ++lastGeneration;
+        statuses[index] = (byte) ComponentStatus.CREATED.ordinal();
+        resultKinds[index] = RESULT_NONE;
+        otherResults.remove(index);
+        batchResults.remove(index);
+        progress.remove(index);
+        return new Row(index, generation);
+    }
+
+    @Override
+    public Set<Entry<Integer, Component>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, Component>> iterator() {
+                int end = rows();
+                return new Iterator<>() {
+                    private int next = skipHoles(0, end);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < end;
+                    }
+
+                    @Override
+                    public Entry<Integer, Component> next() {
+                        if (next >= end) throw new NoSuchElementException();
+                        int index = next;
+                        next = skipHoles(index + 1, end);
+                        return new SimpleImmutableEntry<>(index, get(index));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ColumnarComponents.this.size();
+            }
+        };
+    }
+
+    synchronized int rows() {
+        return size;
+    }
+
+    private synchronized int skipHoles(int index, int end) {
+        while (index < end && symbols[index] == HOLE) {
+            index++;
+        }
+        return index;
+    }
+
+    // Рядок після clear міг опинитися за межами стиснутих масивів
+    private synchronized boolean current(int index, int generation) {
+        return index < size && generations[index] == generation;
+    }
+
+    private synchronized void setResult(int index, int generation, Future<Number> result) {
+        if (!current(index, generation)) return;
+        otherResults.remove(index);
+        resultKinds[index] = RESULT_NONE;
+        if (result == null) return;
+        if (!result.isDone() && result instanceof CompletableFuture) {
+            // Після завершення значення переноситься у стовпець, а future звільняється
+            ((CompletableFuture<Number>) result).whenComplete((value, e) -> fold(index, generation, result));
+        }
+        fold(index, generation, result);
+    }
+
+    private synchronized void fold(int index, int generation, Future<Number> result) {
+        if (!current(index, generation)) return;
+        if (resultKinds[index] == RESULT_OTHER && otherResults.get(index) != result) return;
+        Number value = null;
+        if (result instanceof CompletableFuture) {
+            CompletableFuture<Number> future = (CompletableFuture<Number>) result;
+            if (future.isDone() && !future.isCompletedExceptionally()) value = future.join();
+        }
+        if (value instanceof Double) {
+            resultKinds[index] = RESULT_DOUBLE;
+            resultBits[index] = Double.doubleToRawLongBits(value.doubleValue());
+            otherResults.remove(index);
+        } else if (value instanceof Long) {
+            resultKinds[index] = RESULT_LONG;
+            resultBits[index] = value.longValue();
+            otherResults.remove(index);
+        } else {
+            resultKinds[index] = RESULT_OTHER;
+            otherResults.put(index, result);
+        }
+    }
+
+    private synchronized Future<Number> getResult(int index) {
+        switch (resultKinds[index]) {
+            case RESULT_DOUBLE:
+                return CompletableFuture.completedFuture(Double.longBitsToDouble(resultBits[index]));
+            case RESULT_LONG:
+                return CompletableFuture.completedFuture(resultBits[index]);
+            case RESULT_OTHER:
+                return otherResults.get(index);
+            default:
+                return null;
+        }
+    }
+
+    private synchronized void setBatchResult(int index, int generation, Future<double[]> result) {
+        if (!current(index, generation)) return;
+        if (result == null) {
+            batchResults.remove(index);
+        } else {
+            batchResults.put(index, result);
+        }
+    }
+
+    private static int orNone(Integer value) {
+        return value == null ? NONE : value;
+    }
+
+    private static Integer optional(int value) {
+        return value == NONE ? null : value;
+    }
+
+    // Представлення одного рядка; власні поля Component не використовуються
+    private final class Row extends Component {
+        private final int generation;
+
+        Row(int index, int generation) {
+            super(index, symbols[index]);
+            this.generation = generation;
+        }
+
+        @Override
+        public char getSymbol() {
+            synchronized (ColumnarComponents.this) {
+                return symbols[getIndex()];
+            }
+        }
+
+        @Override
+        public Integer getTimeLimit() {
+            synchronized (ColumnarComponents.this) {
+                return optional(timeLimits[getIndex()]);
+            }
+        }
+
+        @Override
+        public void setTimeLimit(Integer timeLimit) {
+            synchronized (ColumnarComponents.this) {
+                if (current(getIndex(), generation)) timeLimits[getIndex()] = orNone(timeLimit);
+            }
+        }
+
+        @Override
+        public Integer getSource() {
+            synchronized (ColumnarComponents.this) {
+                return optional(sources[getIndex()]);
+            }
+        }
+
+        @Override
+        public void setSource(Integer source) {
+            synchronized (ColumnarComponents.this) {
+                if (current(getIndex(), generation)) sources[getIndex()] = orNone(source);
+            }
+        }
+
+        @Override
+        public ComponentStatus getStatus() {
+            synchronized (ColumnarComponents.this) {
+                return STATUSES[statuses[getIndex()]];
+            }
+        }
+
+        @Override
+        public void setStatus(ComponentStatus status) {
+            synchronized (ColumnarComponents.this) {
+                if (!current(getIndex(), generation)) return;
+                statuses[getIndex()] = (byte) status.ordinal();
+                if (status == ComponentStatus.COMPLETED || status == ComponentStatus.FAILED) {
+                    progress.remove(getIndex());
+                }
+            }
+        }
+
+        @Override
+        public Future<Number> getResult() {
+            return ColumnarComponents.this.getResult(getIndex());
+        }
+
+        @Override
+        public void setResult(Future<Number> result) {
+            ColumnarComponents.this.setResult(getIndex(), generation, result);
+        }
+
+        @Override
+        public Future<double[]> getBatchResult() {
+            return batchResults.get(getIndex());
+        }
+
+        @Override
+        public void setBatchResult(Future<double[]> batchResult) {
+            ColumnarComponents.this.setBatchResult(getIndex(), generation, batchResult);
+        }
+
+        @Override
+        public String getProgress() {
+            return progress.get(getIndex());
+        }
+
+        // Прогрес потрібен лише поки компонент виконується; завершення (setStatus) його прибирає
+        @Override
+        public void setProgress(String value) {
+            synchronized (ColumnarComponents.this) {
+                if (!current(getIndex(), generation)) return;
+                if (value == null) {
+                    progress.remove(getIndex());
+                } else {
+                    progress.put(getIndex(), value);
+                }
+            }
+        }
+    }
+}
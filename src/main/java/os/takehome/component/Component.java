@@ -1,20 +1,20 @@
 package os.takehome.component;
 
-import java.net.*;
 import java.util.concurrent.*;
 
 public class Component {
     private final int index;
     private final char symbol;
     private Integer timeLimit; // in seconds
-    private Future<Double> result;
-    private ComponentStatus status;
-    private final Socket socket;
+    private Integer source; // компонент групи, чий результат стає входом цього
+    private volatile Future<Number> result;
+    private volatile Future<double[]> batchResult;
+    private volatile ComponentStatus status;
+    private volatile String progress; // остання проміжна ітерація, поки компонент виконується
 
-    public Component(int index, char symbol, Socket socket) {
+    public Component(int index, char symbol) {
         this.index = index;
         this.symbol = symbol;
-        this.socket = socket;
         this.status = ComponentStatus.CREATED;
     }
 
@@ -22,9 +22,14 @@ public class Component {
     public char getSymbol() { return symbol; }
     public void setTimeLimit(Integer timeLimit) { this.timeLimit = timeLimit; }
     public Integer getTimeLimit() { return timeLimit; }
-    public Future<Double> getResult() { return result; }
-    public void setResult(Future<Double> result) { this.result = result; }
+    public void setSource(Integer source) { this.source = source; }
+    public Integer getSource() { return source; }
+    public Future<Number> getResult() { return result; }
+    public void setResult(Future<Number> result) { this.result = result; }
+    public Future<double[]> getBatchResult() { return batchResult; }
+    public void setBatchResult(Future<double[]> batchResult) { this.batchResult = batchResult; }
     public ComponentStatus getStatus() { return status; }
+    public void setProgress(String progress) { this.progress = progress; }
+    public String getProgress() { return progress; }
     public void setStatus(ComponentStatus status) { this.status = status; }
-    public Socket getSocket() { return socket; }
 }
\ No newline at end of file
@@ -4,12 +4,41 @@ import java.util.*;
 
 public class ComponentFactory {
     private static final Map<Character, CalculationComponent> COMPONENTS = new HashMap<>();
+    private static final ResultCache RESULT_CACHE = new ResultCache(
+            Integer.getInteger("taskmanager.cache.maxSize", 10_000),
+            Long.getLong("taskmanager.cache.ttlSeconds", 600L) * 1000);
 
+    private static final String ENGINE = System.getProperty("taskmanager.engine", "simulated").trim().toLowerCase();
+
+    // Профіль "simulated" імітує довгі обчислення затримками, "fast" рахує справжніми алгоритмами
     static {
-        COMPONENTS.put('F', new FactorialComponent());     // Факторіал
-        COMPONENTS.put('B', new FibonacciComponent());     // Числа Фібоначчі
-        COMPONENTS.put('P', new PrimeCheckComponent());    // Перевірка на простоту
-        COMPONENTS.put('S', new SqrtComponent());         // Квадратний корінь
+        switch (ENGINE) {
+            case "simulated":
+                register(new FactorialComponent());     // Факторіал
+                register(new FibonacciComponent());     // Числа Фібоначчі
+                register(new PrimeCheckComponent());    // Перевірка на простоту
+                register(new SqrtComponent());          // Квадратний корінь
+                break;
+            case "fast":
+                register(new FastFactorialComponent());
+                register(new FastFibonacciComponent());
+                register(new FastPrimeCheckComponent());
+                register(new FastSqrtComponent());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown engine profile: " + ENGINE);
+        }
+    }
+
+    // Обчислення детерміновані, тому кожен калькулятор обгортаємо кешем результатів
+    private static void register(CalculationComponent component) {
+        CalculationComponent registered = component;
+        if (RESULT_CACHE.getMaxSize() > 0) {
+            registered = component instanceof AsyncCalculationComponent
+                    ? new AsyncCachingComponent((AsyncCalculationComponent) component, RESULT_CACHE)
+                    : new CachingComponent(component, RESULT_CACHE);
+        }
+        COMPONENTS.put(component.getSymbol(), registered);
     }
 
     public static CalculationComponent getComponent(char symbol) {
@@ -23,4 +52,12 @@ public class ComponentFactory {
     public static boolean isValidSymbol(char symbol) {
         return COMPONENTS.containsKey(symbol);
     }
-}
\ No newline at end of file
+
+    public static String getEngine() {
+        return ENGINE;
+    }
+
+    public static ResultCache getResultCache() {
+        return RESULT_CACHE;
+    }
+}
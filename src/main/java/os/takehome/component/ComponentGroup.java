@@ -5,19 +5,73 @@ import java.util.*;
 public class ComponentGroup {
     private final int index;
     private Integer timeLimit; // in seconds
+    private int weight; // частка планувальника відносно інших груп
+    private Integer quota; // найбільше одночасних запусків, null — без обмеження
     private final Map<Integer, Component> components;
-    private boolean isRunning;
+    private volatile boolean isRunning;
+    private volatile GroupAggregates aggregates; // підсумки останнього запуску, null — запусків ще не було
 
     public ComponentGroup(int index) {
+        this(index, GroupStorage.MAP);
+    }
+
+    public ComponentGroup(int index, GroupStorage storage) {
         this.index = index;
-        this.components = new HashMap<>();
+        // Колбеки завершення і команди читають компоненти паралельно з run, що замінює їх новими
+        this.components = storage.newComponents();
         this.isRunning = false;
+        this.weight = 1;
     }
 
     public int getIndex() { return index; }
     public void setTimeLimit(Integer timeLimit) { this.timeLimit = timeLimit; }
     public Integer getTimeLimit() { return timeLimit; }
+    public void setWeight(int weight) { this.weight = weight; }
+    public int getWeight() { return weight; }
+    public void setQuota(Integer quota) { this.quota = quota; }
+    public Integer getQuota() { return quota; }
     public Map<Integer, Component> getComponents() { return components; }
     public boolean isRunning() { return isRunning; }
     public void setRunning(boolean running) { isRunning = running; }
+    public GroupAggregates getAggregates() { return aggregates; }
+
+    // Свіжий стан компонента для нового запуску з тим самим символом, лімітом і джерелом.
+    // Колбеки попереднього запуску й надалі пишуть у старий об'єкт і не впливають на новий
+    public Component restartComponent(int componentIndex) {
+        if (components instanceof ColumnarComponents) {
+            return ((ColumnarComponents) components).restart(componentIndex);
+        }
+        Component previous = components.get(componentIndex);
+        if (previous == null) throw new IllegalArgumentException("Component not found: " + componentIndex);
+        Component restarted = new Component(componentIndex, previous.getSymbol());
+        restarted.setTimeLimit(previous.getTimeLimit());
+        restarted.setSource(previous.getSource());
+        components.put(componentIndex, restarted);
+        return restarted;
+    }
+
+    // Межа номерів компонентів: номери йдуть від 0, серед них можуть бути пропуски (див. hasComponent)
+    public int getIndexBound() {
+        if (components instanceof ColumnarComponents) {
+            return ((ColumnarComponents) components).rows();
+        }
+        int bound = 0;
+        for (int componentIndex : components.keySet()) {
+            bound = Math.max(bound, componentIndex + 1);
+        }
+        return bound;
+    }
+
+    public boolean hasComponent(int componentIndex) {
+        if (components instanceof ColumnarComponents) {
+            return ((ColumnarComponents) components).contains(componentIndex);
+        }
+        return components.containsKey(componentIndex);
+    }
+
+    public GroupAggregates startAggregates(int componentCount) {
+        GroupAggregates started = new GroupAggregates(componentCount);
+        aggregates = started;
+        return started;
+    }
 }
\ No newline at end of file
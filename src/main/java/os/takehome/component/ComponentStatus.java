@@ -1,5 +1,5 @@
 package os.takehome.component;
 
 public enum ComponentStatus {
-    CREATED, RUNNING, COMPLETED, FAILED
+    CREATED, WAITING, RUNNING, COMPLETED, FAILED
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package os.takehome.component;
+
+/*
+ * Профіль "fast" (-Dtaskmanager.engine=fast): справжні алгоритми без штучних затримок.
+ * F, B і P повертають точний результат через calculateExact; calculate дає його наближення double.
+ */
+final class FastCalculationComponents {
+    // Межі входу, за яких точний результат ще вміщується в кадр протоколу (16 МБ)
+    static final int MAX_FACTORIAL_INPUT = 1_000_000;
+    static final int MAX_FIBONACCI_INPUT = 10_000_000;
+
+    private FastCalculationComponents() {}
+
+    static void checkInput(char symbol, int input, int max) {
+        if (input > max) {
+            throw new IllegalArgumentException("Input " + input + " is too large for " + symbol + " (max " + max + ")");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package os.takehome.component;
+
+import java.math.*;
+
+class FastFactorialComponent implements CalculationComponent {
+    private static final int LONG_LIMIT = 20;
+
+    @Override
+    public double calculate(int input) {
+        if (input > 170) return Double.POSITIVE_INFINITY;
+        double result = 1;
+        for (int i = 2; i <= input; i++) {
+            result *= i;
+        }
+        return result;
+    }
+
+    @Override
+    public Number calculateExact(int input) {
+        FastCalculationComponents.checkInput(getSymbol(), input, FastCalculationComponents.MAX_FACTORIAL_INPUT);
+        if (input <= LONG_LIMIT) {
+            long result = 1;
+            for (int i = 2; i <= input; i++) {
+                result *= i;
+            }
+            return result;
+        }
+        return product(2, input);
+    }
+
+    // Бінарне розбиття: множники однакового розміру дозволяють BigInteger використати Карацубу/Тоома-Кука
+    private static BigInteger product(int from, int to) {
+        if (to - from < 16) {
+            long partial = 1;
+            BigInteger result = BigInteger.ONE;
+            for (int i = from; i <= to; i++) {
+                if (partial > Long.MAX_VALUE / i) {
+                    result = result.multiply(BigInteger.valueOf(partial));
+                    partial = 1;
+                }
+                partial *= i;
+            }
+            return result.multiply(BigInteger.valueOf(partial));
+        }
+        int middle = (from + to) >>> 1;
+        return product(from, middle).multiply(product(middle + 1, to));
+    }
+
+    @Override
+    public char getSymbol() {
+        return 'F';
+    }
+}
@@ -0,0 +1,54 @@
+package os.takehome.component;
+
+import java.math.*;
+
+class FastFibonacciComponent implements CalculationComponent {
+    private static final int LONG_LIMIT = 92;
+
+    @Override
+    public double calculate(int input) {
+        if (input <= 1) return input;
+        // F(1476) — найбільше число Фібоначчі, що вміщується в double
+        if (input > 1476) return Double.POSITIVE_INFINITY;
+        return calculateExact(input).doubleValue();
+    }
+
+    @Override
+    public Number calculateExact(int input) {
+        if (input <= 1) return (long) input;
+        FastCalculationComponents.checkInput(getSymbol(), input, FastCalculationComponents.MAX_FIBONACCI_INPUT);
+        if (input <= LONG_LIMIT) {
+            long previous = 0, current = 1;
+            for (int i = 2; i <= input; i++) {
+                long next = previous + current;
+                previous = current;
+                current = next;
+            }
+            return current;
+        }
+        return fastDoubling(input)[0];
+    }
+
+    // Повертає [F(n), F(n+1)]: F(2k) = F(k)(2F(k+1) - F(k)), F(2k+1) = F(k)^2 + F(k+1)^2
+    private static BigInteger[] fastDoubling(int n) {
+        BigInteger a = BigInteger.ZERO;
+        BigInteger b = BigInteger.ONE;
+        for (int bit = 31 - Integer.numberOfLeadingZeros(n); bit >= 0; bit--) {
+            BigInteger even = a.multiply(b.shiftLeft(1).subtract(a));
+            BigInteger odd = a.multiply(a).add(b.multiply(b));
+            if (((n >>> bit) & 1) == 0) {
+                a = even;
+                b = odd;
+            } else {
+                a = odd;
+                b = even.add(odd);
+            }
+        }
+        return new BigInteger[]{a, b};
+    }
+
+    @Override
+    public char getSymbol() {
+        return 'B';
+    }
+}
@@ -0,0 +1,60 @@
+package os.takehome.component;
+
+class FastPrimeCheckComponent implements CalculationComponent {
+    // Для n < 4 759 123 141 перевірка за основами 2, 7 і 61 детермінована, тож покриває весь int
+    private static final long[] BASES = {2, 7, 61};
+
+    @Override
+    public double calculate(int input) {
+        return isPrime(input) ? 1 : 0;
+    }
+
+    @Override
+    public Number calculateExact(int input) {
+        return isPrime(input) ? 1L : 0L;
+    }
+
+    static boolean isPrime(int input) {
+        if (input < 2) return false;
+        if (input < 4) return true;
+        if ((input & 1) == 0) return false;
+        long n = input;
+        long d = n - 1;
+        int shift = Long.numberOfTrailingZeros(d);
+        d >>= shift;
+        for (long base : BASES) {
+            if (base % n == 0) continue;
+            if (!passesRound(base, d, shift, n)) return false;
+        }
+        return true;
+    }
+
+    private static boolean passesRound(long base, long d, int shift, long n) {
+        // n < 2^31, тому добуток двох залишків уміщується в long
+        long x = powMod(base, d, n);
+        if (x == 1 || x == n - 1) return true;
+        for (int i = 1; i < shift; i++) {
+            x = x * x % n;
+            if (x == n - 1) return true;
+        }
+        return false;
+    }
+
+    private static long powMod(long base, long exponent, long modulus) {
+        long result = 1;
+        base %= modulus;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1) {
+                result = result * base % modulus;
+            }
+            base = base * base % modulus;
+            exponent >>= 1;
+        }
+        return result;
+    }
+
+    @Override
+    public char getSymbol() {
+        return 'P';
+    }
+}
@@ -0,0 +1,30 @@
+package os.takehome.component;
+
+class FastSqrtComponent implements CalculationComponent {
+    // Math.sqrt коректно округлена (IEEE 754), тож для цілого входу це найточніший можливий double
+    @Override
+    public double calculate(int input) {
+        return Math.sqrt(input);
+    }
+
+    // Для точних квадратів повертаємо ціле значення кореня
+    @Override
+    public Number calculateExact(int input) {
+        if (input < 0) return Double.NaN;
+        long root = isqrt(input);
+        return root * root == input ? (Number) root : (Number) Math.sqrt(input);
+    }
+
+    // Цілий корінь: наближення double з корекцією на ±1
+    static long isqrt(long n) {
+        long root = (long) Math.sqrt(n);
+        while (root * root > n) root--;
+        while ((root + 1) * (root + 1) <= n) root++;
+        return root;
+    }
+
+    @Override
+    public char getSymbol() {
+        return 'S';
+    }
+}
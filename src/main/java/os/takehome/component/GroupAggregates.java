@@ -0,0 +1,146 @@
+package os.takehome.component;
+
+import java.util.concurrent.atomic.*;
+
+/*
+ * Підсумки одного запуску групи, що оновлюються без блокувань у момент завершення кожного компонента.
+ * snapshot() читає лише кілька лічильників, тож summary не залежить від розміру групи і не чекає на результати.
+ * Кожен run отримує новий екземпляр, тож запізнілі колбеки попереднього запуску не псують поточні підсумки.
+ */
+public class GroupAggregates {
+    private final int components;
+    private final long startedAtNanos;
+    private final LongAdder completed;
+    private final LongAdder failed;
+    private final LongAdder timedOut;
+    private final LongAdder values;
+    private final DoubleAdder sum;
+    private final DoubleAccumulator min;
+    private final DoubleAccumulator max;
+    private final LongAdder latencyNanos;
+    private final LongAccumulator maxLatencyNanos;
+    private volatile long finishedAtNanos;
+
+    public GroupAggregates(int components) {
+        this.components = components;
+        this.startedAtNanos = System.nanoTime();
+        this.completed = new LongAdder();
+        this.failed = new LongAdder();
+        this.timedOut = new LongAdder();
+        this.values = new LongAdder();
+        this.sum = new DoubleAdder();
+        this.min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        this.max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+        this.latencyNanos = new LongAdder();
+        this.maxLatencyNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    // Величезні точні результати враховуються своїм наближенням double (можливо, нескінченністю)
+    public void completed(Number result, long latency) {
+        addValue(result.doubleValue());
+        finished(latency);
+        completed.increment();
+    }
+
+    public void completedBatch(double[] results, long latency) {
+        for (double result : results) {
+            addValue(result);
+        }
+        finished(latency);
+        completed.increment();
+    }
+
+    public void failed(boolean timeout, long latency) {
+        finished(latency);
+        if (timeout) {
+            timedOut.increment();
+        }
+        failed.increment();
+    }
+
+    // NaN (корінь від'ємного числа) не має порядку, тож не бере участі в сумі й межах
+    private void addValue(double value) {
+        values.increment();
+        if (Double.isNaN(value)) return;
+        sum.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    // Увесь запуск завершено: час запуску більше не зростає
+    public void runFinished() {
+        finishedAtNanos = System.nanoTime();
+    }
+
+    private void finished(long latency) {
+        latencyNanos.add(latency);
+        maxLatencyNanos.accumulate(latency);
+    }
+
+    // Лічильник завершених читається останнім: значення, які він враховує, вже додані до сум
+    public Snapshot snapshot() {
+        long finishedAt = finishedAtNanos;
+        long valueCount = values.sum();
+        double valueSum = sum.sum();
+        double valueMin = min.get();
+        double valueMax = max.get();
+        long latency = latencyNanos.sum();
+        long maxLatency = maxLatencyNanos.get();
+        long timeouts = timedOut.sum();
+        long failures = failed.sum();
+        long successes = completed.sum();
+        return new Snapshot(components, successes, failures, timeouts, valueCount, valueSum,
+                valueMin, valueMax, latency, maxLatency, finishedAt != 0,
+                (finishedAt != 0 ? finishedAt : System.nanoTime()) - startedAtNanos);
+    }
+
+    public static final class Snapshot {
+        private final int components;
+        private final long completed;
+        private final long failed;
+        private final long timedOut;
+        private final long values;
+        private final double sum;
+        private final double min;
+        private final double max;
+        private final long latencyNanos;
+        private final long maxLatencyNanos;
+        private final boolean finished;
+        private final long elapsedNanos;
+
+        Snapshot(int components, long completed, long failed, long timedOut, long values, double sum,
+                 double min, double max, long latencyNanos, long maxLatencyNanos, boolean finished, long elapsedNanos) {
+            this.components = components;
+            this.completed = completed;
+            this.failed = failed;
+            this.timedOut = timedOut;
+            this.values = values;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.latencyNanos = latencyNanos;
+            this.maxLatencyNanos = maxLatencyNanos;
+            this.finished = finished;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getComponents() { return components; }
+        public long getCompleted() { return completed; }
+        public long getFailed() { return failed; }
+        public long getTimedOut() { return timedOut; }
+        public long getPending() { return Math.max(0, components - completed - failed); }
+        public long getValues() { return values; }
+        public double getSum() { return sum; }
+        // NaN, якщо впорядкованих значень ще немає
+        public double getMin() { return min > max ? Double.NaN : min; }
+        public double getMax() { return min > max ? Double.NaN : max; }
+        public boolean isFinished() { return finished; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public long getMaxLatencyNanos() { return maxLatencyNanos; }
+
+        public double getMeanLatencyNanos() {
+            long finished = completed + failed;
+            return finished == 0 ? 0 : (double) latencyNanos / finished;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package os.takehome.component;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Як група зберігає компоненти (-Dtaskmanager.group.storage):
+ *   map      — окремий об'єкт Component на кожен компонент у ConcurrentHashMap;
+ *   columnar — примітивні масиви, індексовані номером компонента; Component — лише тимчасове представлення рядка.
+ */
+public enum GroupStorage {
+    MAP, COLUMNAR;
+
+    public static GroupStorage fromSystemProperty() {
+        String storage = System.getProperty("taskmanager.group.storage", "map");
+        try {
+            return valueOf(storage.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown group storage: " + storage);
+        }
+    }
+
+    Map<Integer, Component> newComponents() {
+        return this == COLUMNAR ? new ColumnarComponents() : new ConcurrentHashMap<>();
+    }
+}
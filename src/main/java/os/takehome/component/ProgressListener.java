@@ -0,0 +1,7 @@
+package os.takehome.component;
+
+@FunctionalInterface
+public interface ProgressListener {
+    // residual — похибка часткового значення (для кореня — |x² - вхід|); NaN, якщо калькулятор її не оцінює
+    void onProgress(int iteration, double partial, double residual);
+}
@@ -0,0 +1,283 @@
+package os.takehome.component;
+
+import java.math.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+public class ResultCache {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<Long, CachedResult> entries;
+    private final Map<Long, SharedComputation> inFlight;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder coalesced;
+    private final LongAdder evictions;
+    private final LongAdder expirations;
+    // Точні результати великих входів займають мегабайти; їх не зберігаємо, лише об'єднуємо однакові запити
+    private static final int MAX_CACHED_BITS = 1 << 16;
+
+    public ResultCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.inFlight = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.coalesced = new LongAdder();
+        this.evictions = new LongAdder();
+        this.expirations = new LongAdder();
+    }
+
+    // Результат компонента однозначно визначається парою (символ, вхід)
+    private static long key(char symbol, int input) {
+        return ((long) symbol << 32) | (input & 0xFFFFFFFFL);
+    }
+
+    public Number get(char symbol, int input, IntFunction<? extends Number> calculator) {
+        long key = key(symbol, input);
+        Number cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        SharedComputation computation = new SharedComputation();
+        SharedComputation running = inFlight.putIfAbsent(key, computation);
+        if (running != null) {
+            // Такий самий запит уже обчислюється: чекаємо на його результат
+            coalesced.increment();
+            try {
+                return await(running);
+            } catch (CancellationException e) {
+                // Асинхронне обчислення, на яке ми чекали, скасували всі його запити: обчислюємо самі
+                return get(symbol, input, calculator);
+            } catch (RuntimeException e) {
+                // Обчислення, на яке ми чекали, скасували разом з його запитом: обчислюємо самі
+                if (e.getCause() instanceof InterruptedException && !Thread.currentThread().isInterrupted()) {
+                    return get(symbol, input, calculator);
+                }
+                throw e;
+            }
+        }
+
+        misses.increment();
+        try {
+            Number result = calculator.apply(input);
+            storeIfSmall(key, result);
+            computation.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            computation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, computation);
+        }
+    }
+
+    /*
+     * Неблокуючий варіант get. Однакові запити ділять одне обчислення, але кожен отримує власний future:
+     * його скасування не зачіпає інших, а обчислення скасовується, коли від нього відмовилися всі.
+     */
+    public <T> CompletableFuture<T> getAsync(char symbol, int input,
+                                             IntFunction<? extends CompletableFuture<? extends Number>> calculator,
+                                             Function<Number, T> convert) {
+        long key = key(symbol, input);
+        Number cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(convert.apply(cached));
+        }
+
+        while (true) {
+            SharedComputation computation = new SharedComputation();
+            SharedComputation running = inFlight.putIfAbsent(key, computation);
+            if (running != null) {
+                CompletableFuture<T> view = running.join(convert);
+                if (view != null) {
+                    coalesced.increment();
+                    return view;
+                }
+                // Усі запити відмовилися від цього обчислення, і воно вже скасовується
+                inFlight.remove(key, running);
+                continue;
+            }
+
+            misses.increment();
+            CompletableFuture<T> view = computation.join(convert);
+            CompletableFuture<? extends Number> source;
+            try {
+                source = calculator.apply(input);
+            } catch (RuntimeException e) {
+                inFlight.remove(key, computation);
+                computation.completeExceptionally(e);
+                return view;
+            }
+            computation.start(source);
+            source.whenComplete((result, e) -> {
+                inFlight.remove(key, computation);
+                if (e != null) {
+                    computation.completeExceptionally(e);
+                } else {
+                    storeIfSmall(key, result);
+                    computation.complete(result);
+                }
+            });
+            return view;
+        }
+    }
+
+    public Number getIfPresent(char symbol, int input) {
+        Number cached = lookup(key(symbol, input));
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    public void put(char symbol, int input, Number value) {
+        storeIfSmall(key(symbol, input), value);
+    }
+
+    private void storeIfSmall(long key, Number result) {
+        if (!(result instanceof BigInteger) || ((BigInteger) result).bitLength() <= MAX_CACHED_BITS) {
+            store(key, result);
+        }
+    }
+
+    private Number await(SharedComputation running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private synchronized Number lookup(long key) {
+        CachedResult entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.isExpired(ttlMillis)) {
+            entries.remove(key);
+            expirations.increment();
+            return null;
+        }
+        return entry.value;
+    }
+
+    private synchronized void store(long key, Number value) {
+        entries.put(key, new CachedResult(value));
+        Iterator<CachedResult> eldest = entries.values().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized boolean contains(char symbol, int input) {
+        CachedResult entry = entries.get(key(symbol, input));
+        return entry != null && !entry.isExpired(ttlMillis);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() { return maxSize; }
+    public long getTtlMillis() { return ttlMillis; }
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getCoalesced() { return coalesced.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public long getExpirations() { return expirations.sum(); }
+
+    /*
+     * Спільне обчислення однакових запитів. waiters рахує асинхронних учасників; -1 означає, що всі
+     * відмовилися і обчислення скасоване. Обчислення синхронного get (source == null) не скасовується.
+     */
+    private static final class SharedComputation extends CompletableFuture<Number> {
+        private final AtomicInteger waiters = new AtomicInteger();
+        private volatile Future<?> source;
+
+        <T> CompletableFuture<T> join(Function<Number, T> convert) {
+            int current;
+            do {
+                current = waiters.get();
+                if (current < 0) return null;
+            } while (!waiters.compareAndSet(current, current + 1));
+            View<T> view = new View<>(this);
+            whenComplete((result, e) -> {
+                if (e != null) {
+                    view.completeExceptionally(e);
+                } else {
+                    view.complete(convert.apply(result));
+                }
+            });
+            return view;
+        }
+
+        void start(Future<?> source) {
+            this.source = source;
+            // Єдиний запит могли скасувати ще до запуску обчислення
+            closeIfAbandoned();
+        }
+
+        void leave() {
+            if (waiters.decrementAndGet() == 0) {
+                closeIfAbandoned();
+            }
+        }
+
+        private void closeIfAbandoned() {
+            Future<?> running = source;
+            if (running != null && waiters.compareAndSet(0, -1)) {
+                running.cancel(true);
+            }
+        }
+    }
+
+    private static final class View<T> extends CompletableFuture<T> {
+        private final SharedComputation computation;
+
+        View(SharedComputation computation) {
+            this.computation = computation;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                computation.leave();
+            }
+            return cancelled;
+        }
+    }
+
+    private static final class CachedResult {
+        private final Number value;
+        private final long createdAt;
+
+        CachedResult(Number value) {
+            this.value = value;
+            this.createdAt = System.currentTimeMillis();
+        }
+
+        boolean isExpired(long ttlMillis) {
+            return ttlMillis > 0 && System.currentTimeMillis() - createdAt > ttlMillis;
+        }
+    }
+}
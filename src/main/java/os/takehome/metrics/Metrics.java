@@ -0,0 +1,135 @@
+package os.takehome.metrics;
+
+import os.takehome.component.ComponentStatus;
+
+import javax.management.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+public class Metrics {
+    public enum Phase {
+        CONNECT, QUEUE_WAIT, COMPUTE, END_TO_END
+    }
+
+    private static final Map<Character, Map<Phase, LatencyHistogram>> LATENCIES = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongAdder> OUTCOMES = new ConcurrentSkipListMap<>();
+    private static final Set<Character> REGISTERED_SYMBOLS = ConcurrentHashMap.newKeySet();
+    private static volatile boolean jmxEnabled;
+
+    private Metrics() {}
+
+    public static void recordLatency(char symbol, Phase phase, long nanos) {
+        histogram(symbol, phase).recordNanos(nanos);
+    }
+
+    public static LatencyHistogram histogram(char symbol, Phase phase) {
+        Map<Phase, LatencyHistogram> phases = LATENCIES.get(symbol);
+        if (phases == null) {
+            phases = LATENCIES.computeIfAbsent(symbol, s -> {
+                Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+                for (Phase p : Phase.values()) {
+                    histograms.put(p, new LatencyHistogram());
+                }
+                return histograms;
+            });
+            if (jmxEnabled) {
+                registerSymbolMBean(symbol);
+            }
+        }
+        return phases.get(phase);
+    }
+
+    public static Set<Character> getSymbols() {
+        return LATENCIES.keySet();
+    }
+
+    // Показники стану (глибина черги, відкриті сокети тощо) читаються в момент запиту
+    public static void registerGauge(String name, LongSupplier gauge) {
+        GAUGES.put(name, gauge);
+    }
+
+    public static void recordStatus(ComponentStatus status) {
+        recordOutcome(status.name().toLowerCase());
+    }
+
+    public static void recordOutcome(String outcome) {
+        OUTCOMES.computeIfAbsent(outcome, o -> new LongAdder()).increment();
+    }
+
+    public static Map<String, Long> getGauges() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        GAUGES.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    public static Map<String, Long> getOutcomes() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        OUTCOMES.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    public static synchronized void registerMBeans() {
+        if (jmxEnabled) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("os.takehome:type=Metrics");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMXBean() {
+                    @Override
+                    public Map<String, Long> getGauges() {
+                        return Metrics.getGauges();
+                    }
+
+                    @Override
+                    public Map<String, Long> getOutcomes() {
+                        return Metrics.getOutcomes();
+                    }
+                }, name);
+            }
+            jmxEnabled = true;
+            for (char symbol : LATENCIES.keySet()) {
+                registerSymbolMBean(symbol);
+            }
+        } catch (JMException e) {
+            System.err.println("Failed to register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    private static void registerSymbolMBean(char symbol) {
+        if (!REGISTERED_SYMBOLS.add(symbol)) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("os.takehome:type=SymbolMetrics,symbol=" + symbol);
+            if (server.isRegistered(name)) return;
+            server.registerMBean(new SymbolMetricsMXBean() {
+                @Override
+                public Map<String, Double> getLatencyMillis() {
+                    Map<String, Double> values = new LinkedHashMap<>();
+                    for (Phase phase : Phase.values()) {
+                        LatencyHistogram histogram = histogram(symbol, phase);
+                        String prefix = phase.name().toLowerCase();
+                        values.put(prefix + ".p50", histogram.getPercentileMicros(0.5) / 1000.0);
+                        values.put(prefix + ".p99", histogram.getPercentileMicros(0.99) / 1000.0);
+                        values.put(prefix + ".max", histogram.getMaxMicros() / 1000.0);
+                    }
+                    return values;
+                }
+
+                @Override
+                public Map<String, Long> getSampleCounts() {
+                    Map<String, Long> values = new LinkedHashMap<>();
+                    for (Phase phase : Phase.values()) {
+                        values.put(phase.name().toLowerCase(), histogram(symbol, phase).getCount());
+                    }
+                    return values;
+                }
+            }, name);
+        } catch (JMException e) {
+            System.err.println("Failed to register metrics MBean for symbol " + symbol + ": " + e.getMessage());
+        }
+    }
+}
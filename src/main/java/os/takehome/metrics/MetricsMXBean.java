@@ -0,0 +1,8 @@
+package os.takehome.metrics;
+
+import java.util.*;
+
+public interface MetricsMXBean {
+    Map<String, Long> getGauges();
+    Map<String, Long> getOutcomes();
+}
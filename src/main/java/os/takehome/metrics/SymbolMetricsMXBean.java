@@ -0,0 +1,9 @@
+package os.takehome.metrics;
+
+import java.util.*;
+
+public interface SymbolMetricsMXBean {
+    // Ключі мають вигляд "<фаза>.p50", "<фаза>.p99", "<фаза>.max"
+    Map<String, Double> getLatencyMillis();
+    Map<String, Long> getSampleCounts();
+}
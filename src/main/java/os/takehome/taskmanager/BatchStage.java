@@ -0,0 +1,128 @@
+package os.takehome.taskmanager;
+
+import os.takehome.transport.ChunkSink;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Етап пакетного конвеєра. Частини результату передаються споживачам щойно надходять,
+ * тож наступний етап запускає свої обчислення до того, як цей обробив увесь пакет.
+ */
+class BatchStage {
+    interface Call {
+        CompletableFuture<double[]> submit(long deadlineNanos, int[] inputs, ChunkSink sink);
+    }
+
+    private final double[] results;
+    private final CompletableFuture<double[]> result;
+    private final Integer timeLimit;
+    private final Call submitter;
+    private final List<ChunkSink> consumers;
+    // Позиції results, що вже надійшли; з них відтворюються частини для пізніх споживачів
+    private final BitSet received;
+    private final List<CompletableFuture<double[]>> calls;
+    private int receivedCount;
+    private long deadline;
+
+    BatchStage(int size, Integer timeLimit, Call submitter) {
+        this.results = new double[size];
+        this.result = new CompletableFuture<>();
+        this.timeLimit = timeLimit;
+        this.submitter = submitter;
+        this.consumers = new ArrayList<>();
+        this.received = new BitSet(size);
+        this.calls = new ArrayList<>();
+        if (size == 0) {
+            result.complete(results);
+        }
+        // Збій або тайм-аут етапу зупиняє всі його незавершені виклики
+        result.whenComplete((values, e) -> {
+            if (e != null) {
+                for (CompletableFuture<double[]> call : snapshotCalls()) {
+                    call.cancel(true);
+                }
+            }
+        });
+    }
+
+    CompletableFuture<double[]> getResult() {
+        return result;
+    }
+
+    // Обчислює частину пакета, що починається з offset у нумерації всього етапу.
+    // Ліміт часу етапу відраховується від першої частини: до неї етап лише чекав на джерело
+    void submit(int offset, int[] inputs) {
+        if (result.isDone()) return;
+        long stageDeadline;
+        synchronized (this) {
+            if (deadline == 0) {
+                deadline = DeadlineScheduler.deadlineAfter(timeLimit);
+                if (timeLimit != null) {
+                    result.orTimeout(timeLimit, TimeUnit.SECONDS);
+                }
+            }
+            stageDeadline = deadline;
+        }
+        CompletableFuture<double[]> call = submitter.submit(stageDeadline, inputs,
+                (chunkOffset, values) -> onChunk(offset + chunkOffset, values));
+        synchronized (this) {
+            calls.add(call);
+        }
+        if (result.isDone()) {
+            call.cancel(true);
+        }
+        call.whenComplete((values, e) -> {
+            if (e != null) {
+                fail(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+    }
+
+    // Споживач отримує й ті частини, що надійшли до підписки: суміжні частини відтворюються одним шматком
+    void subscribe(ChunkSink consumer) {
+        List<Integer> offsets = new ArrayList<>();
+        List<double[]> replay = new ArrayList<>();
+        synchronized (this) {
+            for (int from = received.nextSetBit(0); from >= 0; from = received.nextSetBit(from)) {
+                int to = received.nextClearBit(from);
+                offsets.add(from);
+                replay.add(Arrays.copyOfRange(results, from, to));
+                from = to;
+            }
+            consumers.add(consumer);
+        }
+        for (int i = 0; i < replay.size(); i++) {
+            consumer.accept(offsets.get(i), replay.get(i));
+        }
+    }
+
+    void fail(Throwable error) {
+        result.completeExceptionally(error);
+    }
+
+    private void onChunk(int offset, double[] values) {
+        boolean complete;
+        List<ChunkSink> targets;
+        synchronized (this) {
+            if (result.isDone()) return;
+            System.arraycopy(values, 0, results, offset, values.length);
+            received.set(offset, offset + values.length);
+            receivedCount += values.length;
+            complete = receivedCount == results.length;
+            // Список знімається під замком, тож підписка не пропустить і не продублює частину;
+            // самі споживачі запускають обчислення наступних етапів, тому викликаються вже без замка
+            targets = List.copyOf(consumers);
+        }
+        for (ChunkSink consumer : targets) {
+            consumer.accept(offset, values);
+        }
+        if (complete) {
+            result.complete(results);
+        }
+    }
+
+    private synchronized List<CompletableFuture<double[]>> snapshotCalls() {
+        return new ArrayList<>(calls);
+    }
+}
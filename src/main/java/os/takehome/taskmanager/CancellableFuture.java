@@ -0,0 +1,54 @@
+package os.takehome.taskmanager;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// CompletableFuture.cancel не перериває потік обчислення; тут скасування передається задачам виконавця
+public class CancellableFuture<T> extends CompletableFuture<T> {
+    private final List<Future<?>> tasks;
+    private final List<Runnable> cancelListeners;
+
+    public CancellableFuture() {
+        this.tasks = new CopyOnWriteArrayList<>();
+        this.cancelListeners = new CopyOnWriteArrayList<>();
+    }
+
+    public void addTask(Future<?> task) {
+        tasks.add(task);
+        if (isCompletedExceptionally()) {
+            task.cancel(true);
+        }
+    }
+
+    public void onCancel(Runnable listener) {
+        cancelListeners.add(listener);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            stopTasks();
+        }
+        return cancelled;
+    }
+
+    // Помилка однієї задачі завершує результат і зупиняє решту задач так само, як скасування
+    public boolean fail(Throwable error) {
+        boolean failed = completeExceptionally(error);
+        if (failed) {
+            stopTasks();
+        }
+        return failed;
+    }
+
+    private void stopTasks() {
+        // Слухачі бачать стан задач до переривання
+        for (Runnable listener : cancelListeners) {
+            listener.run();
+        }
+        for (Future<?> task : tasks) {
+            task.cancel(true);
+        }
+    }
+}
@@ -1,214 +1,558 @@
 package os.takehome.taskmanager;
 
+import os.takehome.component.AsyncCalculationComponent;
+import os.takehome.component.CalculationComponent;
 import os.takehome.component.Component;
 import os.takehome.component.ComponentFactory;
 import os.takehome.component.ComponentGroup;
 import os.takehome.component.ComponentStatus;
+import os.takehome.component.GroupAggregates;
+import os.takehome.component.ResultCache;
+import os.takehome.metrics.LatencyHistogram;
+import os.takehome.metrics.Metrics;
+import os.takehome.transport.ChunkSink;
+import os.takehome.transport.ClientConnection;
+import os.takehome.transport.ConnectionPool;
+import os.takehome.transport.Worker;
+import os.takehome.transport.WorkerRegistry;
 
 import java.io.*;
+import java.math.*;
 import java.net.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
 
 public class CommandProcessor {
     private final ComponentGroupManager groupManager;
     private final ServerManager serverManager;
     private final NotificationManager notificationManager;
-
-    public CommandProcessor(ComponentGroupManager groupManager, ServerManager serverManager, NotificationManager notificationManager) {
+    private final ConnectionPool connectionPool;
+    private final WorkerRegistry workerRegistry;
+    private final HedgingPolicy hedgingPolicy;
+    private static final int MAX_BATCH_SIZE = 1_000_000;
+    private static final int MAX_RESULT_DIGITS = 40;
+    private static final int MAX_NEW_COMPONENTS = 100_000;
+    private static final int SUMMARY_COMPONENTS = 20;
+
+    public CommandProcessor(ComponentGroupManager groupManager, ServerManager serverManager,
+                            NotificationManager notificationManager, ConnectionPool connectionPool,
+                            WorkerRegistry workerRegistry) {
         this.groupManager = groupManager;
         this.serverManager = serverManager;
         this.notificationManager = notificationManager;
+        this.connectionPool = connectionPool;
+        this.workerRegistry = workerRegistry;
+        this.hedgingPolicy = HedgingPolicy.fromSystemProperties();
+        registerGauges();
+    }
+
+    private void registerGauges() {
+        DeadlineScheduler scheduler = groupManager.getScheduler();
+        Metrics.registerGauge("client.inFlight", scheduler::getRunningCount);
+        Metrics.registerGauge("client.queueDepth", scheduler::getQueuedCount);
+        Metrics.registerGauge("client.openConnections", connectionPool::getOpenConnections);
+        Metrics.registerGauge("workers.healthy", workerRegistry::getHealthyCount);
+        Metrics.registerGauge("notifications.pending", notificationManager::getPendingCount);
+        Metrics.registerGauge("notifications.dropped", notificationManager::getDroppedCount);
     }
 
     public void processCommand(String command) {
-        String[] parts = command.trim().split("\\s+");
         try {
-            switch (parts[0].toLowerCase()) {
-                case "group":
-                    if (parts.length < 2) throw new IllegalArgumentException("Usage: group <index> [limit <time in seconds>]");
-                    int groupIndex = Integer.parseInt(parts[1]);
-                    Integer timeLimit = (parts.length == 4 && parts[2].equalsIgnoreCase("limit")) ? Integer.parseInt(parts[3]) : null;
-                    handleGroupCommand(groupIndex, timeLimit);
-                    break;
-                case "new":
-                    if (parts.length != 2) throw new IllegalArgumentException("Usage: new <component symbol>");
-                    handleNewCommand(parts[1].charAt(0));
-                    break;
-                case "run":
-                    int argument = parts.length > 1 ? Integer.parseInt(parts[1]) : 5;
-                    handleRunCommand(argument);
-                    break;
-                case "status":
-                    if (parts.length != 2) throw new IllegalArgumentException("Usage: status <component index>");
-                    handleStatusCommand(Integer.parseInt(parts[1]));
-                    break;
-                case "summary":
-                    handleSummaryCommand();
-                    break;
-                case "interactive":
-                    handleInteractiveCommand();
-                    break;
-                default:
-                    System.out.println("Unknown command: " + parts[0]);
-            }
+            execute(command);
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
         }
     }
 
+    // Для run повертає future, що завершується разом з групою; для решти команд — одразу завершений
+    public CompletableFuture<Void> execute(String command) throws IOException {
+        String[] parts = command.trim().split("\\s+");
+        switch (parts[0].toLowerCase()) {
+            case "group":
+                if (parts.length < 2) throw new IllegalArgumentException("Usage: group <index> [limit <time in seconds>]");
+                int groupIndex = Integer.parseInt(parts[1]);
+                Integer timeLimit = (parts.length == 4 && parts[2].equalsIgnoreCase("limit")) ? Integer.parseInt(parts[3]) : null;
+                handleGroupCommand(groupIndex, timeLimit);
+                break;
+            case "new": {
+                // new F, new FFBBPS, new F x200, new FB x10 from 0
+                int count = 1;
+                int next = 2;
+                if (parts.length > next && parts[next].matches("[xX]\\d+")) {
+                    count = Integer.parseInt(parts[next].substring(1));
+                    next++;
+                }
+                Integer source = null;
+                if (parts.length == next + 2 && parts[next].equalsIgnoreCase("from")) {
+                    source = Integer.valueOf(parts[next + 1]);
+                    next += 2;
+                }
+                if (parts.length < 2 || parts.length != next) {
+                    throw new IllegalArgumentException("Usage: new <component symbols> [x<count>] [from <component index>]");
+                }
+                handleNewCommand(parts[1], count, source);
+                break;
+            }
+            case "limit":
+                if (parts.length != 3) throw new IllegalArgumentException("Usage: limit <group|component index> <time in seconds>");
+                handleSetLimitCommand(parts[1], Integer.parseInt(parts[2]));
+                break;
+            case "weight":
+                if (parts.length != 2) throw new IllegalArgumentException("Usage: weight <share of current group>");
+                handleWeightCommand(Integer.parseInt(parts[1]));
+                break;
+            case "quota":
+                if (parts.length != 2) throw new IllegalArgumentException("Usage: quota <max running components|none>");
+                handleQuotaCommand(parts[1].equalsIgnoreCase("none") ? null : Integer.valueOf(parts[1]));
+                break;
+            case "run": {
+                Double tolerance = null;
+                if (parts.length == 4 && parts[2].equalsIgnoreCase("tolerance")) {
+                    tolerance = Double.parseDouble(parts[3]);
+                } else if (parts.length > 2) {
+                    throw new IllegalArgumentException("Usage: run [argument|batch] [tolerance <residual>]");
+                }
+                if (parts.length > 1 && isBatchArgument(parts[1])) {
+                    if (tolerance != null) throw new IllegalArgumentException("Tolerance applies to single runs only");
+                    return handleRunCommand(parseBatchArgument(parts[1]), true, null);
+                }
+                int argument = parts.length > 1 ? Integer.parseInt(parts[1]) : 5;
+                return handleRunCommand(new int[]{argument}, false, tolerance);
+            }
+            case "status":
+                if (parts.length != 2) throw new IllegalArgumentException("Usage: status <component index>");
+                handleStatusCommand(Integer.parseInt(parts[1]));
+                break;
+            case "summary":
+                handleSummaryCommand();
+                break;
+            case "cache":
+                handleCacheCommand(parts.length > 1 && parts[1].equalsIgnoreCase("clear"));
+                break;
+            case "stats":
+                handleStatsCommand();
+                break;
+            case "server":
+                handleServerCommand();
+                break;
+            case "workers":
+                handleWorkersCommand();
+                break;
+            case "scheduler":
+                handleSchedulerCommand();
+                break;
+            case "journal":
+                handleJournalCommand(parts.length > 1 && parts[1].equalsIgnoreCase("compact"));
+                break;
+            case "interactive":
+                handleInteractiveCommand();
+                break;
+            default:
+                System.out.println("Unknown command: " + parts[0]);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
     private void handleGroupCommand(int index, Integer timeLimit) {
         groupManager.createOrSwitchGroup(index);
 
         if (timeLimit != null) {
             ComponentGroup currentGroup = groupManager.getCurrentGroup();
             currentGroup.setTimeLimit(timeLimit);
+            groupManager.groupUpdated(currentGroup);
             System.out.println("Set time limit of " + timeLimit + " seconds for group " + currentGroup.getIndex());
         }
     }
 
-    private void handleNewCommand(char symbol) throws IOException {
+    // Компонент із джерелом отримує на вхід результат іншого компонента групи замість аргументу run.
+    // Джерело завжди створене раніше, тож залежності утворюють ациклічний граф.
+    // Рядок символів (FFBBPS) з повтором (x200) створює всі компоненти за одне паралельне підключення до вузлів;
+    // неправильні символи пропускаються з повідомленням, решта компонентів створюється
+    private void handleNewCommand(String symbols, int count, Integer source) throws IOException {
         ComponentGroup currentGroup = groupManager.getCurrentGroup();
-        if (!ComponentFactory.isValidSymbol(symbol)) {
-            throw new IllegalArgumentException("Invalid component symbol: " + symbol);
+        if (count < 1 || (long) symbols.length() * count > MAX_NEW_COMPONENTS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_NEW_COMPONENTS + " components can be created at once");
+        }
+        if (source != null && !currentGroup.getComponents().containsKey(source)) {
+            throw new IllegalArgumentException("Source component not found: " + source);
+        }
+        StringBuilder valid = new StringBuilder();
+        StringBuilder invalid = new StringBuilder();
+        for (char symbol : symbols.toCharArray()) {
+            (ComponentFactory.isValidSymbol(symbol) ? valid : invalid).append(symbol);
+        }
+        if (valid.length() == 0) {
+            throw new IllegalArgumentException("Invalid component symbol: " + symbols);
         }
 
-        int componentIndex = currentGroup.getComponents().size();
-        Socket socket = createComponentSocket(componentIndex);
+        int healthyBefore = workerRegistry.getHealthyCount();
+        workerRegistry.warm();
+        int healthy = workerRegistry.getHealthyCount();
+        if (healthy == 0) {
+            throw new IOException("No healthy workers available");
+        }
 
-        Component component = new Component(componentIndex, symbol, socket);
-        groupManager.addComponent(component);
+        int first = currentGroup.getComponents().size();
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < valid.length(); j++) {
+                Component component = new Component(currentGroup.getComponents().size(), valid.charAt(j));
+                component.setSource(source);
+                groupManager.addComponent(component);
+            }
+        }
+        int created = currentGroup.getComponents().size() - first;
 
-        System.out.println("Created component " + componentIndex + " with symbol " + symbol);
+        String fedBy = source != null ? " fed by component " + source : "";
+        if (created == 1) {
+            System.out.println("Created component " + first + " with symbol " + valid + fedBy);
+        } else {
+            System.out.println("Created " + created + " components " + first + ".." + (first + created - 1) +
+                    " (" + describeSymbols(valid, count) + ")" + fedBy);
+        }
+        if (invalid.length() > 0) {
+            System.out.println("Skipped invalid component symbols: " + invalid);
+        }
+        if (healthy < healthyBefore) {
+            System.out.println("Warning: " + (healthyBefore - healthy) + " of " + workerRegistry.getWorkers().size() +
+                    " workers are unavailable; components will run on the remaining " + healthy);
+        }
+    }
+
+    // F=200, B=200 для "FB x200"
+    private static String describeSymbols(CharSequence symbols, int count) {
+        Map<Character, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < symbols.length(); i++) {
+            counts.merge(symbols.charAt(i), count, Integer::sum);
+        }
+        StringJoiner description = new StringJoiner(", ");
+        counts.forEach((symbol, total) -> description.add(symbol + "=" + total));
+        return description.toString();
     }
 
     private void handleSetLimitCommand(String target, int timeLimit) {
         if (target.equalsIgnoreCase("group")) {
             ComponentGroup currentGroup = groupManager.getCurrentGroup();
             currentGroup.setTimeLimit(timeLimit);
+            groupManager.groupUpdated(currentGroup);
             System.out.println("Set time limit of " + timeLimit + " seconds for group " + currentGroup.getIndex());
         } else {
             int componentIndex = Integer.parseInt(target);
             Component component = groupManager.getCurrentGroup().getComponents().get(componentIndex);
             if (component == null) throw new IllegalArgumentException("Component not found: " + componentIndex);
             component.setTimeLimit(timeLimit);
+            groupManager.componentUpdated(groupManager.getCurrentGroup(), component);
             System.out.println("Set time limit of " + timeLimit + " seconds for component " + componentIndex);
         }
     }
 
+    // Вага визначає частку місць планувальника, яку група отримує, коли кілька груп змагаються за них
+    private void handleWeightCommand(int weight) {
+        if (weight < 1 || weight > DeadlineScheduler.MAX_WEIGHT) {
+            throw new IllegalArgumentException("Weight must be between 1 and " + DeadlineScheduler.MAX_WEIGHT);
+        }
+        ComponentGroup currentGroup = groupManager.getCurrentGroup();
+        currentGroup.setWeight(weight);
+        groupManager.groupUpdated(currentGroup);
+        System.out.println("Set weight " + weight + " for group " + currentGroup.getIndex());
+    }
+
+    private void handleQuotaCommand(Integer quota) {
+        if (quota != null && quota < 1) throw new IllegalArgumentException("Quota must be positive");
+        ComponentGroup currentGroup = groupManager.getCurrentGroup();
+        currentGroup.setQuota(quota);
+        groupManager.groupUpdated(currentGroup);
+        System.out.println((quota == null ? "Removed concurrency quota" : "Set concurrency quota " + quota) +
+                " for group " + currentGroup.getIndex());
+    }
 
-    private Socket createComponentSocket(int componentIndex) throws IOException {
-        int maxRetries = 3;
-        int retryCount = 0;
-        int retryDelayMs = 1000;
+    private static boolean isBatchArgument(String argument) {
+        return argument.contains("..") || argument.contains(",");
+    }
 
-        while (retryCount < maxRetries) {
-            try {
-                return new Socket("localhost", ServerManager.getPortStart() + componentIndex);
-            } catch (ConnectException e) {
-                retryCount++;
-                if (retryCount >= maxRetries) {
-                    throw new IOException("Failed to connect after " + maxRetries + " attempts");
-                }
-                System.out.println("Connection attempt " + retryCount + " failed, retrying in " + retryDelayMs + "ms...");
-                try {
-                    Thread.sleep(retryDelayMs);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new IOException("Connection interrupted");
-                }
+    // Формат пакета: перелік значень і діапазонів через кому, наприклад "1..100" або "2,3,5..9"
+    private static int[] parseBatchArgument(String argument) {
+        List<int[]> ranges = new ArrayList<>();
+        long total = 0;
+        for (String item : argument.split(",")) {
+            int separator = item.indexOf("..");
+            int from = Integer.parseInt(separator < 0 ? item : item.substring(0, separator));
+            int to = separator < 0 ? from : Integer.parseInt(item.substring(separator + 2));
+            if (to < from) throw new IllegalArgumentException("Invalid range: " + item);
+            total += (long) to - from + 1;
+            if (total > MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("Batch is limited to " + MAX_BATCH_SIZE + " inputs");
             }
+            ranges.add(new int[]{from, to});
         }
-        throw new IOException("Failed to create component socket");
+        int[] inputs = new int[(int) total];
+        int position = 0;
+        for (int[] range : ranges) {
+            for (long value = range[0]; value <= range[1]; value++) {
+                inputs[position++] = (int) value;
+            }
+        }
+        return inputs;
     }
 
-    private void handleRunCommand(int argument) {
+    private CompletableFuture<Void> handleRunCommand(int[] inputs, boolean batch, Double tolerance) {
         ComponentGroup currentGroup = groupManager.getCurrentGroup();
 
         if (currentGroup.getTimeLimit() != null) {
             System.out.println("Execution time limit: " + currentGroup.getTimeLimit() + " seconds");
         }
+        if (batch) {
+            System.out.println("Running batch of " + inputs.length + " inputs");
+        }
 
         currentGroup.setRunning(true);
-        Map<Integer, Component> newComponents = new HashMap<>();
+        groupManager.runStarted(currentGroup);
+        GroupAggregates aggregates = currentGroup.startAggregates(currentGroup.getComponents().size());
         List<CompletableFuture<Void>> componentFutures = new ArrayList<>();
-
-        for (Component oldComponent : currentGroup.getComponents().values()) {
-            try {
-                if (!oldComponent.getSocket().isClosed()) {
-                    oldComponent.getSocket().close();
+        Map<Integer, CompletableFuture<Number>> results = new HashMap<>();
+        Map<Integer, BatchStage> stages = new HashMap<>();
+
+        // За зростанням індексу джерело кожного компонента обробляється раніше за нього
+        int indexBound = currentGroup.getIndexBound();
+        for (int componentIndex = 0; componentIndex < indexBound; componentIndex++) {
+            if (!currentGroup.hasComponent(componentIndex)) continue;
+            Component newComponent = currentGroup.restartComponent(componentIndex);
+
+            Integer source = newComponent.getSource();
+            // RUNNING встановлюється і рахується в метриках, коли компонент справді стартує
+            newComponent.setStatus(ComponentStatus.WAITING);
+            char symbol = newComponent.getSymbol();
+            long submittedAt = System.nanoTime();
+
+            // Ліміт компонента має пріоритет над лімітом групи
+            Integer timeLimit = newComponent.getTimeLimit() != null ? newComponent.getTimeLimit() : currentGroup.getTimeLimit();
+
+            CompletableFuture<String> outcome;
+            if (batch) {
+                BatchStage stage = newBatchStage(currentGroup, newComponent, inputs.length, timeLimit);
+                if (source == null) {
+                    stage.submit(0, inputs);
+                } else {
+                    BatchStage upstream = stages.get(source);
+                    upstream.subscribe((offset, values) -> {
+                        int[] chunk = new int[values.length];
+                        try {
+                            for (int i = 0; i < values.length; i++) {
+                                chunk[i] = toInput(values[i], source);
+                            }
+                        } catch (IllegalArgumentException e) {
+                            stage.fail(e);
+                            return;
+                        }
+                        stage.submit(offset, chunk);
+                    });
+                    upstream.getResult().whenComplete((values, e) -> {
+                        if (e != null) stage.fail(new IllegalStateException("Source component " + source + " failed"));
+                    });
                 }
-
-                Socket newSocket = createComponentSocket(oldComponent.getIndex());
-                Component newComponent = new Component(
-                        oldComponent.getIndex(),
-                        oldComponent.getSymbol(),
-                        newSocket
-                );
-
-                newComponent.setStatus(ComponentStatus.RUNNING);
-
-                CompletableFuture<Double> resultFuture = CompletableFuture.supplyAsync(() -> {
-                    try {
-                        return executeComponent(newComponent, argument);
-                    } catch (Exception e) {
-                        throw new CompletionException(e);
-                    }
-                }, groupManager.getExecutorService());
-
-                if (currentGroup.getTimeLimit() != null) {
-                    resultFuture = resultFuture.orTimeout(currentGroup.getTimeLimit(), TimeUnit.SECONDS)
-                            .exceptionally(e -> {
-                                newComponent.setStatus(ComponentStatus.FAILED);
-                                notificationManager.sendNotification("Component " + newComponent.getIndex() +
-                                        " failed due to time limit: " + e.getMessage());
-                                return null;
-                            });
-                }
-
+                stages.put(newComponent.getIndex(), stage);
+                CompletableFuture<double[]> batchFuture = stage.getResult();
+                batchFuture.thenAccept(values -> {
+                    aggregates.completedBatch(values, System.nanoTime() - submittedAt);
+                    groupManager.batchCompleted(currentGroup, newComponent, values);
+                });
+                newComponent.setBatchResult(batchFuture);
+                outcome = batchFuture.thenApply(values -> "completed batch with results: " + formatResults(values));
+            } else {
+                CompletableFuture<Integer> input = source == null
+                        ? CompletableFuture.completedFuture(inputs[0])
+                        : results.get(source).handle((value, e) -> {
+                            if (e != null) throw new CompletionException(new IllegalStateException("Source component " + source + " failed"));
+                            return toInput(value, source);
+                        });
+                CompletableFuture<Number> resultFuture = input.thenCompose(argument ->
+                        startComponent(currentGroup, newComponent, argument, timeLimit, tolerance));
+                resultFuture.thenAccept(value -> aggregates.completed(value, System.nanoTime() - submittedAt));
+                results.put(newComponent.getIndex(), resultFuture);
                 newComponent.setResult(resultFuture);
+                outcome = resultFuture.thenApply(result -> "completed with result: " + formatResult(result));
+            }
 
-                CompletableFuture<Void> componentFuture = resultFuture
-                        .thenAccept(result -> {
-                            newComponent.setStatus(ComponentStatus.COMPLETED);
+            CompletableFuture<Void> componentFuture = outcome
+                    .whenComplete((message, e) ->
+                            Metrics.recordLatency(symbol, Metrics.Phase.END_TO_END, System.nanoTime() - submittedAt))
+                    .thenAccept(message -> {
+                        newComponent.setStatus(ComponentStatus.COMPLETED);
+                        Metrics.recordStatus(ComponentStatus.COMPLETED);
+                        notificationManager.sendNotification("Component " + newComponent.getIndex() + " " + message);
+                    })
+                    .exceptionally(e -> {
+                        newComponent.setStatus(ComponentStatus.FAILED);
+                        Metrics.recordStatus(ComponentStatus.FAILED);
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        aggregates.failed(cause instanceof TimeoutException, System.nanoTime() - submittedAt);
+                        if (cause instanceof TimeoutException) {
+                            Metrics.recordOutcome("failed.timeout");
                             notificationManager.sendNotification("Component " + newComponent.getIndex() +
-                                    " completed with result: " + result);
-                        })
-                        .exceptionally(e -> {
-                            newComponent.setStatus(ComponentStatus.FAILED);
+                                    " failed due to time limit");
+                        } else if (cause instanceof RejectedExecutionException) {
+                            Metrics.recordOutcome("failed.rejected");
                             notificationManager.sendNotification("Component " + newComponent.getIndex() +
-                                    " failed: " + e.getMessage());
-                            return null;
-                        });
-
-                componentFutures.add(componentFuture);
-                newComponents.put(oldComponent.getIndex(), newComponent);
+                                    " rejected: " + cause.getMessage());
+                        } else {
+                            Metrics.recordOutcome("failed.error");
+                            notificationManager.sendNotification("Component " + newComponent.getIndex() +
+                                    " failed: " + cause.getMessage());
+                        }
+                        return null;
+                    });
 
-            } catch (IOException e) {
-                System.err.println("Failed to restart component " + oldComponent.getIndex() + ": " + e.getMessage());
-            }
+            componentFutures.add(componentFuture);
         }
 
-        currentGroup.getComponents().clear();
-        currentGroup.getComponents().putAll(newComponents);
-
-        CompletableFuture.allOf(componentFutures.toArray(new CompletableFuture[0]))
+        return CompletableFuture.allOf(componentFutures.toArray(new CompletableFuture[0]))
                 .whenComplete((v, e) -> {
+                    aggregates.runFinished();
                     currentGroup.setRunning(false);
                     notificationManager.sendNotification("Group " + currentGroup.getIndex() + " completed");
                 });
     }
 
-    private double executeComponent(Component component, int argument) throws IOException {
-        try (ObjectOutputStream out = new ObjectOutputStream(component.getSocket().getOutputStream());
-             ObjectInputStream in = new ObjectInputStream(component.getSocket().getInputStream())) {
+    // Компонент стартує, щойно готовий його вхід; ліміт часу відраховується від старту
+    private CompletableFuture<Number> startComponent(ComponentGroup group, Component component, int argument,
+                                                     Integer timeLimit, Double tolerance) {
+        char symbol = component.getSymbol();
+        long readyAt = System.nanoTime();
+        CompletableFuture<Number> result = withTimeLimit(groupManager.getScheduler().submit(group.getIndex(),
+                DeadlineScheduler.deadlineAfter(timeLimit),
+                ComponentFactory.getComponent(symbol).estimateMillis(argument),
+                () -> {
+                    // До цього компонент чекав у черзі планувальника і лишався WAITING
+                    component.setStatus(ComponentStatus.RUNNING);
+                    Metrics.recordStatus(ComponentStatus.RUNNING);
+                    Metrics.recordLatency(symbol, Metrics.Phase.QUEUE_WAIT, System.nanoTime() - readyAt);
+                    return executeComponent(group.getIndex(), component, argument, tolerance);
+                }), timeLimit);
+        result.thenAccept(value -> groupManager.resultCompleted(group, component, argument, value));
+        return result;
+    }
+
+    // Кожна частина, що надійшла на етап, стає окремим пакетним викликом; компонент стартує з першим із них,
+    // який планувальник випустив з черги
+    private BatchStage newBatchStage(ComponentGroup group, Component component, int size, Integer timeLimit) {
+        char symbol = component.getSymbol();
+        AtomicBoolean started = new AtomicBoolean();
+        return new BatchStage(size, timeLimit, (deadline, chunk, sink) -> {
+            long readyAt = System.nanoTime();
+            return groupManager.getScheduler().submit(group.getIndex(), deadline, estimateBatchMillis(symbol, chunk), () -> {
+                if (started.compareAndSet(false, true)) {
+                    component.setStatus(ComponentStatus.RUNNING);
+                    Metrics.recordStatus(ComponentStatus.RUNNING);
+                }
+                Metrics.recordLatency(symbol, Metrics.Phase.QUEUE_WAIT, System.nanoTime() - readyAt);
+                return executeBatch(group.getIndex(), component, chunk, sink);
+            });
+        });
+    }
+
+    private <T> CompletableFuture<T> withTimeLimit(CompletableFuture<T> future, Integer timeLimit) {
+        if (timeLimit == null) return future;
+        return future.orTimeout(timeLimit, TimeUnit.SECONDS);
+    }
+
+    // Частини пакета обчислюються паралельно, тому пакет триває стільки, скільки найдовша частина.
+    // Обчислення на таймерах паралельні й усередині частини, тож там досить найдовшого входу
+    private static long estimateBatchMillis(char symbol, int[] inputs) {
+        CalculationComponent calculator = ComponentFactory.getComponent(symbol);
+        if (calculator instanceof AsyncCalculationComponent) {
+            long longest = 0;
+            for (int input : inputs) {
+                longest = Math.max(longest, calculator.estimateMillis(input));
+            }
+            return longest;
+        }
+        int chunkSize = ServerManager.getBatchChunkSize();
+        long longestChunk = 0;
+        for (int offset = 0; offset < inputs.length; offset += chunkSize) {
+            long chunk = 0;
+            for (int i = offset; i < Math.min(inputs.length, offset + chunkSize); i++) {
+                chunk += calculator.estimateMillis(inputs[i]);
+            }
+            longestChunk = Math.max(longestChunk, chunk);
+        }
+        return longestChunk;
+    }
+
+    // Вихід джерела стає входом компонента: значення округлюється до цілого і має вміститися в int
+    private static int toInput(Number value, int source) {
+        if (value instanceof BigInteger || value instanceof Long) {
+            BigInteger exact = value instanceof BigInteger ? (BigInteger) value : BigInteger.valueOf(value.longValue());
+            if (exact.bitLength() < Integer.SIZE) return exact.intValue();
+        } else {
+            double rounded = Math.rint(value.doubleValue());
+            if (rounded >= Integer.MIN_VALUE && rounded <= Integer.MAX_VALUE) return (int) rounded;
+        }
+        throw new IllegalArgumentException("Result " + formatResult(value) + " of component " + source +
+                " does not fit an int input");
+    }
+
+    // Для величезних точних значень (F 100000) показуємо лише початок, кінець і кількість цифр
+    private static String formatResult(Number result) {
+        String text = result.toString();
+        if (text.length() <= MAX_RESULT_DIGITS) return text;
+        return text.substring(0, 10) + "..." + text.substring(text.length() - 10) + " (" + text.length() + " digits)";
+    }
+
+    private static String formatResults(double[] results) {
+        StringBuilder builder = new StringBuilder("[");
+        int shown = Math.min(results.length, 5);
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(results[i]);
+        }
+        if (results.length > shown) {
+            builder.append(", ...");
+        }
+        return builder.append("] (").append(results.length).append(" values)").toString();
+    }
 
-            out.writeInt(argument);
-            out.writeChar(component.getSymbol());
-            out.flush();
+    // Вузол обирається під час запуску, тож компоненти однієї групи розходяться між кількома вузлами
+    private <T> CompletableFuture<T> dispatch(Component component, Function<ClientConnection, CompletableFuture<T>> call) {
+        return dispatch(component, call, null);
+    }
+
+    private <T> CompletableFuture<T> dispatch(Component component, Function<ClientConnection, CompletableFuture<T>> call,
+                                              Set<Worker> avoid) {
+        long start = System.nanoTime();
+        return workerRegistry.dispatch(connection -> {
+            Metrics.recordLatency(component.getSymbol(), Metrics.Phase.CONNECT, System.nanoTime() - start);
+            return call.apply(connection);
+        }, avoid);
+    }
+
+    // З хеджуванням повільний компонент дублюється на іншому вузлі й не затримує завершення всієї групи
+    private CompletableFuture<Number> dispatchComponent(Component component, int argument,
+                                                        Function<ClientConnection, CompletableFuture<Number>> call) {
+        if (hedgingPolicy == null) {
+            return dispatch(component, call);
+        }
+        char symbol = component.getSymbol();
+        return hedgingPolicy.execute(symbol, ComponentFactory.getComponent(symbol).estimateMillis(argument),
+                avoid -> dispatch(component, call, avoid));
+    }
+
+    private CompletableFuture<double[]> executeBatch(int group, Component component, int[] inputs, ChunkSink sink) {
+        return dispatch(component, connection ->
+                connection.callBatch(group, component.getIndex(), component.getSymbol(), inputs, sink));
+    }
 
-            return in.readDouble();
+    // Проміжні значення потрібні лише для status в інтерактивному режимі або для дострокового прийняття
+    private CompletableFuture<Number> executeComponent(int group, Component component, int argument, Double tolerance) {
+        if (tolerance == null && !notificationManager.isInteractiveMode()) {
+            return dispatchComponent(component, argument, connection ->
+                    connection.callExact(group, component.getIndex(), component.getSymbol(), argument));
         }
+        return dispatchComponent(component, argument, connection ->
+                connection.callExact(group, component.getIndex(), component.getSymbol(), argument,
+                        (iteration, partial, residual) -> component.setProgress("iteration " + iteration +
+                                ", partial " + partial + (Double.isNaN(residual) ? "" : ", residual " + residual)),
+                        tolerance != null ? tolerance : Double.NaN));
     }
 
     private void handleStatusCommand(int componentIndex) {
@@ -223,26 +567,158 @@ public class CommandProcessor {
             throw new IllegalArgumentException("Component not found: " + componentIndex);
         }
 
-        System.out.println("Component " + componentIndex + " status: " + component.getStatus());
+        String progress = component.getProgress();
+        System.out.println("Component " + componentIndex + " status: " + component.getStatus() +
+                (component.getStatus() == ComponentStatus.RUNNING && progress != null ? " (" + progress + ")" : ""));
     }
 
 
+    // Підсумок читається зі знімка лічильників групи; компоненти перелічуються лише для невеликих груп,
+    // і незавершені результати не очікуються
     private void handleSummaryCommand() {
         ComponentGroup currentGroup = groupManager.getCurrentGroup();
         System.out.println("Group " + currentGroup.getIndex() + " summary:");
-        for (Component component : currentGroup.getComponents().values()) {
-            String result = "N/A";
-            if (component.getResult() != null && component.getResult().isDone()) {
-                try {
-                    result = String.valueOf(component.getResult().get());
-                } catch (Exception e) {
-                    result = "Error: " + e.getMessage();
-                }
+        GroupAggregates aggregates = currentGroup.getAggregates();
+        if (aggregates == null) {
+            System.out.println("No runs in this session");
+        } else {
+            GroupAggregates.Snapshot snapshot = aggregates.snapshot();
+            System.out.println((snapshot.isFinished() ? "Last run" : "Running") +
+                    String.format(Locale.ROOT, " (%.1f s): ", snapshot.getElapsedNanos() / 1e9) +
+                    snapshot.getCompleted() + " completed, " +
+                    snapshot.getFailed() + " failed (" + snapshot.getTimedOut() + " timed out), " +
+                    snapshot.getPending() + " pending of " + snapshot.getComponents());
+            if (snapshot.getValues() > 0) {
+                System.out.println("Results: count=" + snapshot.getValues() +
+                        ", sum=" + snapshot.getSum() +
+                        ", min=" + snapshot.getMin() +
+                        ", max=" + snapshot.getMax());
             }
+            if (snapshot.getCompleted() + snapshot.getFailed() > 0) {
+                System.out.println("Latency (ms): mean=" + formatMillis((long) (snapshot.getMeanLatencyNanos() / 1000)) +
+                        ", max=" + formatMillis(snapshot.getMaxLatencyNanos() / 1000));
+            }
+        }
+
+        Map<Integer, Component> components = currentGroup.getComponents();
+        if (components.size() > SUMMARY_COMPONENTS) {
+            System.out.println(components.size() + " components; use status <index> for details");
+            return;
+        }
+        for (Component component : new TreeMap<>(components).values()) {
             System.out.println("Component " + component.getIndex() +
                     " (Symbol: " + component.getSymbol() +
+                    (component.getSource() != null ? ", from " + component.getSource() : "") +
                     "): Status=" + component.getStatus() +
-                    ", Result=" + result);
+                    ", Result=" + describeResult(component));
+        }
+    }
+
+    private static String describeResult(Component component) {
+        Future<?> result = component.getResult() != null ? component.getResult() : component.getBatchResult();
+        if (result == null || !result.isDone()) return "N/A";
+        try {
+            Object value = result.get();
+            return value instanceof double[] ? formatResults((double[]) value) : formatResult((Number) value);
+        } catch (Exception e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private void handleCacheCommand(boolean clear) {
+        ResultCache cache = ComponentFactory.getResultCache();
+        if (clear) {
+            cache.clear();
+            System.out.println("Result cache cleared");
+            return;
+        }
+        System.out.println("Result cache: size=" + cache.size() + "/" + cache.getMaxSize() +
+                ", ttl=" + cache.getTtlMillis() / 1000 + "s" +
+                ", hits=" + cache.getHits() +
+                ", misses=" + cache.getMisses() +
+                ", coalesced=" + cache.getCoalesced() +
+                ", evictions=" + cache.getEvictions() +
+                ", expirations=" + cache.getExpirations());
+    }
+
+    private void handleStatsCommand() {
+        System.out.println("Latency by symbol (ms, p50/p99/max, samples):");
+        for (char symbol : Metrics.getSymbols()) {
+            StringBuilder line = new StringBuilder("  " + symbol + ":");
+            for (Metrics.Phase phase : Metrics.Phase.values()) {
+                LatencyHistogram histogram = Metrics.histogram(symbol, phase);
+                line.append(" ").append(phase.name().toLowerCase()).append("=")
+                        .append(formatMillis(histogram.getPercentileMicros(0.5))).append("/")
+                        .append(formatMillis(histogram.getPercentileMicros(0.99))).append("/")
+                        .append(formatMillis(histogram.getMaxMicros()))
+                        .append(" (").append(histogram.getCount()).append(")");
+            }
+            System.out.println(line);
+        }
+        System.out.println("Gauges: " + Metrics.getGauges());
+        System.out.println("Outcomes: " + Metrics.getOutcomes());
+        handleCacheCommand(false);
+    }
+
+    private static String formatMillis(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+
+    private void handleServerCommand() {
+        DeadlineScheduler scheduler = groupManager.getScheduler();
+        if (serverManager == null) {
+            System.out.println("Server: not embedded (-Dtaskmanager.server.embedded=false)");
+        } else {
+            System.out.println("Server: transport=" + serverManager.getTransportMode().name().toLowerCase() +
+                    ", cancelled computations=" + serverManager.getCancelledComputations() +
+                    ", reclaimed compute time=" + serverManager.getReclaimedComputeMillis() + "ms" +
+                    ", compute=" + serverManager.getComputeMode().name().toLowerCase() +
+                    ", engine=" + ComponentFactory.getEngine() +
+                    ", scheduled=" + serverManager.getScheduledComputations() +
+                    ", admitted=" + serverManager.getAdmittedComputations() +
+                    ", busy rejections=" + serverManager.getBusyRejections());
+        }
+        System.out.println("Scheduler: starting=" + scheduler.getStartingCount() + "/" + scheduler.getMaxStarting() +
+                ", running=" + scheduler.getRunningCount() + ", queued=" + scheduler.getQueuedCount());
+    }
+
+    private void handleSchedulerCommand() {
+        DeadlineScheduler scheduler = groupManager.getScheduler();
+        System.out.println("Scheduler: starting=" + scheduler.getStartingCount() + "/" + scheduler.getMaxStarting() +
+                ", running=" + scheduler.getRunningCount() + ", queued=" + scheduler.getQueuedCount());
+        for (DeadlineScheduler.GroupLoad load : scheduler.getGroupLoads()) {
+            System.out.println("  Group " + load.getGroup() +
+                    ": weight=" + load.getWeight() +
+                    ", quota=" + (load.getQuota() != null ? load.getQuota() : "none") +
+                    ", running=" + load.getRunning() +
+                    ", queued=" + load.getQueued() +
+                    ", dispatched=" + load.getDispatched());
+        }
+    }
+
+    private void handleJournalCommand(boolean compact) throws IOException {
+        Journal journal = groupManager.getJournal();
+        if (journal == null) {
+            System.out.println("Journal: disabled (-Dtaskmanager.journal=<file>)");
+            return;
+        }
+        if (compact) {
+            journal.compact();
+        }
+        System.out.println("Journal: size=" + journal.getSizeBytes() + " bytes, live=" + journal.getLiveBytes() + " bytes");
+    }
+
+    private void handleWorkersCommand() {
+        System.out.println("Workers (" + workerRegistry.getHealthyCount() + "/" + workerRegistry.getWorkers().size() + " healthy):");
+        for (Worker worker : workerRegistry.getWorkers()) {
+            System.out.println("  " + worker.getEndpoint() +
+                    ": capacity=" + worker.getCapacity() +
+                    ", outstanding=" + worker.getOutstanding() +
+                    ", completed=" + worker.getCompleted() +
+                    ", failed=" + worker.getFailed() +
+                    ", busy responses=" + worker.getBusyResponses() +
+                    (worker.isHealthy() ? "" : ", DOWN") +
+                    (worker.isHealthy() && worker.isBusy() ? ", BUSY" : ""));
         }
     }
 
@@ -1,23 +1,148 @@
 package os.takehome.taskmanager;
 
 import os.takehome.component.Component;
+import os.takehome.component.ComponentFactory;
 import os.takehome.component.ComponentGroup;
+import os.takehome.component.ComponentStatus;
+import os.takehome.component.GroupStorage;
 
+import java.io.*;
+import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.*;
 
 public class ComponentGroupManager {
+    private static final long SYNC_INTERVAL_MS = Long.getLong("taskmanager.journal.syncMillis", 1000L);
+    private static final long MIN_COMPACTION_GARBAGE = Long.getLong("taskmanager.journal.minGarbageBytes", 1 << 20);
+
     private final Map<Integer, ComponentGroup> groups;
+    private final GroupStorage storage;
     private ComponentGroup currentGroup;
     private final ExecutorService executorService;
+    private final DeadlineScheduler scheduler;
+    private Journal journal;
+    private ScheduledExecutorService journalMaintenance;
 
     public ComponentGroupManager() {
+        this(ExecutorMode.fromSystemProperty());
+    }
+
+    public ComponentGroupManager(ExecutorMode executorMode) {
         this.groups = new HashMap<>();
-        this.executorService = Executors.newCachedThreadPool();
+        this.storage = GroupStorage.fromSystemProperty();
+        this.executorService = executorMode.newExecutor();
+        this.scheduler = new DeadlineScheduler(executorService);
+        String journalPath = System.getProperty("taskmanager.journal");
+        if (journalPath != null) {
+            openJournal(Paths.get(journalPath));
+        }
+    }
+
+    // Групи, компоненти і завершені результати відновлюються з журналу; результати також прогрівають кеш
+    private void openJournal(Path path) {
+        long start = System.nanoTime();
+        int[] restored = new int[3];
+        try {
+            journal = Journal.open(path, ComponentFactory.getEngine(), new Journal.Visitor() {
+                @Override
+                public void group(int group, Integer timeLimit, int recordedWeight, Integer quota) {
+                    // Журнал, записаний до обмеження ваги, може містити більшу вагу
+                    int weight = Math.max(1, Math.min(DeadlineScheduler.MAX_WEIGHT, recordedWeight));
+                    ComponentGroup restoredGroup = groups.computeIfAbsent(group, g -> {
+                        restored[0]++;
+                        return new ComponentGroup(g, storage);
+                    });
+                    restoredGroup.setTimeLimit(timeLimit);
+                    restoredGroup.setWeight(weight);
+                    restoredGroup.setQuota(quota);
+                    scheduler.configureGroup(group, weight, quota);
+                }
+
+                @Override
+                public void component(int group, int index, char symbol, Integer timeLimit, Integer source) {
+                    Map<Integer, Component> components = groups.get(group).getComponents();
+                    Component component = components.computeIfAbsent(index, i -> {
+                        restored[1]++;
+                        return new Component(i, symbol);
+                    });
+                    component.setTimeLimit(timeLimit);
+                    component.setSource(source);
+                }
+
+                @Override
+                public void run(int group) {
+                    for (Component component : groups.get(group).getComponents().values()) {
+                        component.setResult(null);
+                        component.setBatchResult(null);
+                        component.setStatus(ComponentStatus.CREATED);
+                    }
+                }
+
+                @Override
+                public void result(int group, int index, int input, Number value) {
+                    Component component = groups.get(group).getComponents().get(index);
+                    component.setResult(CompletableFuture.completedFuture(value));
+                    component.setStatus(ComponentStatus.COMPLETED);
+                    ComponentFactory.getResultCache().put(component.getSymbol(), input, value);
+                    restored[2]++;
+                }
+
+                @Override
+                public void batchResult(int group, int index, double[] values) {
+                    Component component = groups.get(group).getComponents().get(index);
+                    component.setBatchResult(CompletableFuture.completedFuture(values));
+                    component.setStatus(ComponentStatus.COMPLETED);
+                    restored[2]++;
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            // Частково відновлені групи без журналу розійшлися б з файлом, а нові зміни тихо б не записувалися
+            shutdown();
+            throw new IllegalStateException("Journal " + path + " cannot be restored: " + e
+                    + ". Move the file aside or start without -Dtaskmanager.journal", e);
+        }
+        System.out.printf(Locale.ROOT, "Restored %d groups, %d components and %d results from journal %s (%d live bytes) in %.1f ms%n",
+                restored[0], restored[1], restored[2], path, journal.getLiveBytes(), (System.nanoTime() - start) / 1e6);
+
+        journalMaintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        journalMaintenance.scheduleWithFixedDelay(this::maintainJournal, SYNC_INTERVAL_MS, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void maintainJournal() {
+        try {
+            if (journal.needsCompaction(MIN_COMPACTION_GARBAGE)) {
+                journal.compact();
+            } else {
+                journal.force();
+            }
+        } catch (IOException e) {
+            System.err.println("Journal maintenance failed: " + e.getMessage());
+        }
+    }
+
+    private interface JournalWrite {
+        void run(Journal journal) throws IOException;
+    }
+
+    // Збій журналу не повинен зупиняти роботу: повідомляємо і продовжуємо без запису
+    private void journal(JournalWrite write) {
+        if (journal == null) return;
+        try {
+            write.run(journal);
+        } catch (IOException e) {
+            System.err.println("Journal write failed: " + e.getMessage());
+        }
     }
 
     public void createOrSwitchGroup(int index) {
-        groups.putIfAbsent(index, new ComponentGroup(index));
+        if (!groups.containsKey(index)) {
+            groups.put(index, new ComponentGroup(index, storage));
+            journal(j -> j.recordGroup(index, null, 1, null));
+        }
         currentGroup = groups.get(index);
         System.out.println("Switched to group " + index);
     }
@@ -31,13 +156,45 @@ public class ComponentGroupManager {
             throw new IllegalStateException("No group selected");
         }
         currentGroup.getComponents().put(component.getIndex(), component);
+        componentUpdated(currentGroup, component);
     }
 
-    public ExecutorService getExecutorService() {
-        return executorService;
+    public void groupUpdated(ComponentGroup group) {
+        scheduler.configureGroup(group.getIndex(), group.getWeight(), group.getQuota());
+        journal(j -> j.recordGroup(group.getIndex(), group.getTimeLimit(), group.getWeight(), group.getQuota()));
+    }
+
+    public void componentUpdated(ComponentGroup group, Component component) {
+        journal(j -> j.recordComponent(group.getIndex(), component.getIndex(), component.getSymbol(),
+                component.getTimeLimit(), component.getSource()));
+    }
+
+    public void runStarted(ComponentGroup group) {
+        journal(j -> j.recordRun(group.getIndex()));
+    }
+
+    public void resultCompleted(ComponentGroup group, Component component, int input, Number value) {
+        journal(j -> j.recordResult(group.getIndex(), component.getIndex(), input, value));
+    }
+
+    public void batchCompleted(ComponentGroup group, Component component, double[] values) {
+        journal(j -> j.recordBatchResult(group.getIndex(), component.getIndex(), values));
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public DeadlineScheduler getScheduler() {
+        return scheduler;
     }
 
     public void shutdown() {
+        scheduler.shutdown();
         executorService.shutdownNow();
+        if (journalMaintenance != null) {
+            journalMaintenance.shutdownNow();
+        }
+        journal(Journal::close);
     }
-}
\ No newline at end of file
+}
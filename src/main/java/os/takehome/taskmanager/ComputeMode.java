@@ -0,0 +1,46 @@
+package os.takehome.taskmanager;
+
+import java.util.concurrent.*;
+
+/*
+ * Де сервер виконує обчислення:
+ * SHARED — у тому ж пулі, що й з'єднання (вбудований сервер TaskManager), без обмеження черги;
+ * WORK_STEALING — в окремому ForkJoinPool розміром з кількість ядер; понад ліміт у черзі запити
+ * відхиляються з BUSY, щоб клієнт повторив їх пізніше або на іншому вузлі.
+ */
+public enum ComputeMode {
+    SHARED, WORK_STEALING;
+
+    private static final int PARALLELISM = Integer.getInteger("taskmanager.compute.parallelism",
+            Runtime.getRuntime().availableProcessors());
+    private static final int MAX_QUEUED = Integer.getInteger("taskmanager.compute.maxQueued", PARALLELISM * 16);
+
+    public static ComputeMode fromSystemProperty(ComputeMode defaultMode) {
+        String mode = System.getProperty("taskmanager.compute");
+        if (mode == null) return defaultMode;
+        switch (mode.trim().toLowerCase()) {
+            case "shared":
+                return SHARED;
+            case "workstealing":
+            case "work_stealing":
+                return WORK_STEALING;
+            default:
+                throw new IllegalArgumentException("Unknown compute mode: " + mode);
+        }
+    }
+
+    ExecutorService newExecutor(ExecutorService sharedExecutor) {
+        if (this == SHARED) return sharedExecutor;
+        // asyncMode: незалежні задачі виконуються у порядку надходження
+        return new ForkJoinPool(PARALLELISM, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    public int getParallelism() {
+        return this == SHARED ? Integer.MAX_VALUE : PARALLELISM;
+    }
+
+    // Скільки обчислень (разом з тими, що виконуються) вузол приймає, перш ніж відповідати BUSY
+    public int getAdmissionLimit() {
+        return this == SHARED ? Integer.MAX_VALUE : PARALLELISM + MAX_QUEUED;
+    }
+}
@@ -0,0 +1,326 @@
+package os.takehome.taskmanager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/*
+ * Обмежений планувальник запусків компонентів. Кожна група має власну чергу, з якої першим береться запуск
+ * з найранішим дедлайном (EDF). Між групами вільні місця діляться пропорційно вазі групи, тож великий пакет
+ * не витісняє невеликі інтерактивні групи; квота обмежує кількість одночасних запусків однієї групи.
+ * Запуск, який за оцінкою тривалості вже не встигає до дедлайну, відхиляється до старту.
+ * Обчислення йдуть на вузли й не займають потоків, тож загальне місце тримається лише на час старту
+ * (оренда з'єднання, відправка запиту); від перевантаження вузли захищаються відповіддю BUSY.
+ */
+public class DeadlineScheduler {
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+    // Крок віртуального часу групи з вагою 1; група з вагою w просувається в w разів повільніше.
+    // Більша за крок вага дала б нульовий крок, і група забрала б усі запуски
+    private static final long STRIDE = 1 << 20;
+    public static final int MAX_WEIGHT = (int) STRIDE;
+
+    private final int maxStarting;
+    private final Executor executor;
+    private final Map<Integer, GroupQueue> groups;
+    // Групи з непорожньою чергою в порядку появи
+    private final Set<GroupQueue> backlogged;
+    private final AtomicInteger dispatchRequests;
+    private long sequence;
+    private long virtualTime;
+    private int starting;
+    private int running;
+    private int queued;
+    private boolean shutdown;
+
+    public DeadlineScheduler(Executor executor) {
+        this(Integer.getInteger("taskmanager.scheduler.maxStarting",
+                Math.max(16, Runtime.getRuntime().availableProcessors() * 4)), executor);
+    }
+
+    public DeadlineScheduler(int maxStarting, Executor executor) {
+        this.maxStarting = Math.max(1, maxStarting);
+        this.executor = executor;
+        this.groups = new HashMap<>();
+        this.backlogged = new LinkedHashSet<>();
+        this.dispatchRequests = new AtomicInteger();
+    }
+
+    public static long deadlineAfter(Integer timeLimitSeconds) {
+        return timeLimitSeconds == null ? NO_DEADLINE : System.nanoTime() + TimeUnit.SECONDS.toNanos(timeLimitSeconds);
+    }
+
+    // quota — найбільша кількість одночасних запусків групи (null — без обмеження, крім загального)
+    public void configureGroup(int group, int weight, Integer quota) {
+        if (weight < 1 || weight > MAX_WEIGHT) throw new IllegalArgumentException("Weight must be between 1 and " + MAX_WEIGHT);
+        if (quota != null && quota < 1) throw new IllegalArgumentException("Quota must be positive");
+        synchronized (this) {
+            GroupQueue queue = group(group);
+            queue.weight = weight;
+            queue.quota = quota == null ? Integer.MAX_VALUE : quota;
+        }
+        // Збільшена квота може відразу звільнити запуски з черги
+        dispatch();
+    }
+
+    public <T> CompletableFuture<T> submit(int group, long deadlineNanos, long estimateMillis, Supplier<CompletableFuture<T>> task) {
+        ScheduledRun<T> run = new ScheduledRun<>(deadlineNanos, estimateMillis, task);
+        String infeasible = checkDeadline(run);
+        if (infeasible != null) {
+            run.result.completeExceptionally(new RejectedExecutionException(infeasible));
+            return run.result;
+        }
+        synchronized (this) {
+            if (shutdown) {
+                run.result.completeExceptionally(new RejectedExecutionException("Scheduler is shut down"));
+                return run.result;
+            }
+            run.sequence = sequence++;
+            run.group = group(group);
+            if (run.group.runs.isEmpty()) {
+                // Група, що простоювала, не накопичує кредит: стартує з поточного віртуального часу
+                run.group.pass = Math.max(run.group.pass, virtualTime);
+                backlogged.add(run.group);
+            }
+            run.group.runs.add(run);
+            run.queued = true;
+            queued++;
+        }
+        // Тайм-аут чи скасування в черзі одразу прибирає запуск, щоб він не займав місця в лічильниках
+        run.result.whenComplete((value, e) -> dequeue(run));
+        dispatch();
+        return run.result;
+    }
+
+    private synchronized void dequeue(ScheduledRun<?> run) {
+        if (!run.queued) return;
+        run.queued = false;
+        run.group.runs.remove(run);
+        queued--;
+        if (run.group.runs.isEmpty()) {
+            backlogged.remove(run.group);
+        }
+    }
+
+    private GroupQueue group(int index) {
+        return groups.computeIfAbsent(index, GroupQueue::new);
+    }
+
+    private static String checkDeadline(ScheduledRun<?> run) {
+        if (run.deadlineNanos == NO_DEADLINE) return null;
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(run.deadlineNanos - System.nanoTime());
+        if (run.estimateMillis > remainingMillis) {
+            return "cannot meet deadline (estimated " + run.estimateMillis + "ms, " + Math.max(0, remainingMillis) + "ms left)";
+        }
+        return null;
+    }
+
+    // Запуски можуть завершуватися синхронно, тому диспетчеризація не рекурсивна: її виконує один потік за раз
+    private void dispatch() {
+        if (dispatchRequests.getAndIncrement() != 0) return;
+        do {
+            drainQueue();
+        } while (dispatchRequests.decrementAndGet() != 0);
+    }
+
+    private void drainQueue() {
+        while (true) {
+            ScheduledRun<?> run;
+            synchronized (this) {
+                if (starting >= maxStarting) return;
+                GroupQueue group = nextGroup();
+                if (group == null) return;
+                run = group.runs.poll();
+                run.queued = false;
+                queued--;
+                if (group.runs.isEmpty()) {
+                    backlogged.remove(group);
+                }
+                if (run.result.isDone()) continue;
+                // Зважений циклічний обхід (stride scheduling): групи отримують запуски пропорційно вазі
+                virtualTime = group.pass;
+                group.pass += STRIDE / group.weight;
+                group.running++;
+                group.dispatched++;
+                starting++;
+                running++;
+            }
+            // Старт запуску (оренда з'єднання, відправка запиту) може блокуватися, тому виконується в пулі
+            try {
+                executor.execute(() -> start(run));
+            } catch (RejectedExecutionException e) {
+                run.result.completeExceptionally(e);
+                startFinished();
+                finished(run);
+            }
+        }
+    }
+
+    // Група з найменшим віртуальним часом серед тих, що не вичерпали квоту
+    private GroupQueue nextGroup() {
+        GroupQueue next = null;
+        for (GroupQueue group : backlogged) {
+            if (group.running >= group.quota) continue;
+            if (next == null || group.pass < next.pass) {
+                next = group;
+            }
+        }
+        return next;
+    }
+
+    private <T> void start(ScheduledRun<T> run) {
+        String infeasible = checkDeadline(run);
+        if (infeasible != null) {
+            run.result.completeExceptionally(new RejectedExecutionException(infeasible));
+            startFinished();
+            finished(run);
+            return;
+        }
+
+        CompletableFuture<T> execution;
+        try {
+            execution = run.task.get();
+        } catch (RuntimeException e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
+        // Запит відправлено: далі запуск чекає відповіді вузла і займає лише місце своєї групи
+        startFinished();
+        CompletableFuture<T> started = execution;
+        started.whenComplete((value, e) -> {
+            finished(run);
+            if (e != null) {
+                run.result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            } else {
+                run.result.complete(value);
+            }
+        });
+        // Тайм-аут або скасування результату зупиняє і сам запуск
+        run.result.whenComplete((value, e) -> {
+            if (e != null) {
+                started.cancel(true);
+            }
+        });
+    }
+
+    private void startFinished() {
+        synchronized (this) {
+            starting--;
+        }
+        dispatch();
+    }
+
+    private void finished(ScheduledRun<?> run) {
+        synchronized (this) {
+            running--;
+            run.group.running--;
+        }
+        dispatch();
+    }
+
+    public synchronized int getQueuedCount() {
+        return queued;
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    public synchronized int getStartingCount() {
+        return starting;
+    }
+
+    public int getMaxStarting() {
+        return maxStarting;
+    }
+
+    // Групи, що вже подавали запуски, за зростанням індексу
+    public synchronized List<GroupLoad> getGroupLoads() {
+        List<GroupLoad> loads = new ArrayList<>();
+        for (GroupQueue group : new TreeMap<>(groups).values()) {
+            loads.add(new GroupLoad(group.index, group.weight,
+                    group.quota == Integer.MAX_VALUE ? null : group.quota,
+                    group.runs.size(), group.running, group.dispatched));
+        }
+        return loads;
+    }
+
+    public void shutdown() {
+        List<ScheduledRun<?>> pending;
+        synchronized (this) {
+            shutdown = true;
+            pending = new ArrayList<>();
+            for (GroupQueue group : backlogged) {
+                for (ScheduledRun<?> run : group.runs) {
+                    run.queued = false;
+                }
+                pending.addAll(group.runs);
+                group.runs.clear();
+            }
+            backlogged.clear();
+            queued = 0;
+        }
+        for (ScheduledRun<?> run : pending) {
+            run.result.completeExceptionally(new RejectedExecutionException("Scheduler is shut down"));
+        }
+    }
+
+    private static final class ScheduledRun<T> {
+        private final long deadlineNanos;
+        private final long estimateMillis;
+        private final Supplier<CompletableFuture<T>> task;
+        private final CompletableFuture<T> result;
+        private long sequence;
+        private GroupQueue group;
+        private boolean queued;
+
+        ScheduledRun(long deadlineNanos, long estimateMillis, Supplier<CompletableFuture<T>> task) {
+            this.deadlineNanos = deadlineNanos;
+            this.estimateMillis = estimateMillis;
+            this.task = task;
+            this.result = new CompletableFuture<>();
+        }
+    }
+
+    // Черга групи: всередині групи першим іде запуск з найранішим дедлайном
+    private static final class GroupQueue {
+        private final int index;
+        private final PriorityQueue<ScheduledRun<?>> runs;
+        private int weight = 1;
+        private int quota = Integer.MAX_VALUE;
+        private int running;
+        private long dispatched;
+        private long pass;
+
+        GroupQueue(int index) {
+            this.index = index;
+            this.runs = new PriorityQueue<>(Comparator
+                    .comparingLong((ScheduledRun<?> run) -> run.deadlineNanos)
+                    .thenComparingLong(run -> run.sequence));
+        }
+    }
+
+    public static final class GroupLoad {
+        private final int group;
+        private final int weight;
+        private final Integer quota;
+        private final int queued;
+        private final int running;
+        private final long dispatched;
+
+        GroupLoad(int group, int weight, Integer quota, int queued, int running, long dispatched) {
+            this.group = group;
+            this.weight = weight;
+            this.quota = quota;
+            this.queued = queued;
+            this.running = running;
+            this.dispatched = dispatched;
+        }
+
+        public int getGroup() { return group; }
+        public int getWeight() { return weight; }
+        public Integer getQuota() { return quota; }
+        public int getQueued() { return queued; }
+        public int getRunning() { return running; }
+        public long getDispatched() { return dispatched; }
+    }
+}
@@ -0,0 +1,50 @@
+package os.takehome.taskmanager;
+
+import java.lang.reflect.*;
+import java.util.concurrent.*;
+
+public enum ExecutorMode {
+    PLATFORM, VIRTUAL;
+
+    public static ExecutorMode fromSystemProperty() {
+        String mode = System.getProperty("taskmanager.executor", "platform");
+        ExecutorMode executorMode;
+        try {
+            executorMode = valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown executor mode: " + mode);
+        }
+        if (executorMode == VIRTUAL && !isVirtualThreadSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer (running " +
+                    System.getProperty("java.version") + ")");
+        }
+        return executorMode;
+    }
+
+    public ExecutorService newExecutor() {
+        if (this == VIRTUAL) {
+            return newVirtualThreadPerTaskExecutor();
+        }
+        return Executors.newCachedThreadPool();
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // Байт-код завжди під Java 17, тож віртуальні потоки доступні лише через reflection, коли запущено на 21+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Virtual threads are not available: " + e.getMessage());
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor: " + e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package os.takehome.taskmanager;
+
+import os.takehome.metrics.LatencyHistogram;
+import os.takehome.metrics.Metrics;
+import os.takehome.transport.Worker;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/*
+ * Хеджування запитів (-Dtaskmanager.hedge.percentile=0.95): якщо компонент рахує довше за вивчений для його символу
+ * перцентиль, дубль запиту йде на інший вузол. Перший успішний результат завершує виклик, інший запит скасовується.
+ *
+ * Тривалість залежить від входу, тому для кожного символу вивчається перевищення над estimateMillis.
+ * Поріг = оцінка + перцентиль перевищення, але не раніше ніж після minSamples відповідей.
+ * Дублі обмежені часткою maxRatio від усіх запитів, щоб перевантажений кластер не отримав удвічі більше роботи.
+ */
+class HedgingPolicy {
+    private final double percentile;
+    private final int minSamples;
+    private final long minDelayNanos;
+    private final double maxRatio;
+    private final Map<Character, LatencyHistogram> overruns;
+    private final LongAdder requests;
+    private final LongAdder hedges;
+    private final ScheduledExecutorService timer;
+
+    HedgingPolicy(double percentile, int minSamples, long minDelayMillis, double maxRatio) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("taskmanager.hedge.percentile must be between 0 and 1");
+        }
+        this.percentile = percentile;
+        this.minSamples = Math.max(1, minSamples);
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minDelayMillis));
+        this.maxRatio = maxRatio;
+        this.overruns = new ConcurrentHashMap<>();
+        this.requests = new LongAdder();
+        this.hedges = new LongAdder();
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hedge-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // null, якщо хеджування вимкнене
+    static HedgingPolicy fromSystemProperties() {
+        String percentile = System.getProperty("taskmanager.hedge.percentile");
+        if (percentile == null || percentile.isEmpty()) return null;
+        return new HedgingPolicy(Double.parseDouble(percentile),
+                Integer.getInteger("taskmanager.hedge.minSamples", 20),
+                Long.getLong("taskmanager.hedge.minDelayMs", 5L),
+                Double.parseDouble(System.getProperty("taskmanager.hedge.maxRatio", "0.1")));
+    }
+
+    // attempt відправляє один примірник запиту, уникаючи вузлів з переданої множини
+    <T> CompletableFuture<T> execute(char symbol, long estimateMillis, Function<Set<Worker>, CompletableFuture<T>> attempt) {
+        requests.increment();
+        Set<Worker> used = ConcurrentHashMap.newKeySet();
+        CompletableFuture<T> primary = launch(symbol, estimateMillis, attempt, used);
+        long delayNanos = hedgeDelayNanos(symbol, estimateMillis);
+        if (delayNanos < 0) return primary;
+
+        Race<T> race = new Race<>(primary);
+        ScheduledFuture<?> hedge = timer.schedule(() -> {
+            if (primary.isDone() || !reserveHedge()) return;
+            Metrics.recordOutcome("hedge.sent");
+            race.add(launch(symbol, estimateMillis, attempt, used));
+        }, delayNanos, TimeUnit.NANOSECONDS);
+        race.result.whenComplete((value, error) -> hedge.cancel(false));
+        return race.result;
+    }
+
+    private <T> CompletableFuture<T> launch(char symbol, long estimateMillis,
+                                            Function<Set<Worker>, CompletableFuture<T>> attempt, Set<Worker> used) {
+        long start = System.nanoTime();
+        CompletableFuture<T> call = attempt.apply(used);
+        // Скасовані програші не потрапляють у вибірку, тож поріг вивчається лише з фактичних відповідей
+        call.thenRun(() -> overruns.computeIfAbsent(symbol, s -> new LatencyHistogram())
+                .recordNanos(Math.max(0, System.nanoTime() - start - TimeUnit.MILLISECONDS.toNanos(estimateMillis))));
+        return call;
+    }
+
+    // -1, поки для символу замало спостережень
+    long hedgeDelayNanos(char symbol, long estimateMillis) {
+        LatencyHistogram histogram = overruns.get(symbol);
+        if (histogram == null || histogram.getCount() < minSamples) return -1;
+        long overrun = TimeUnit.MICROSECONDS.toNanos(histogram.getPercentileMicros(percentile));
+        return Math.max(minDelayNanos, TimeUnit.MILLISECONDS.toNanos(estimateMillis) + overrun);
+    }
+
+    private boolean reserveHedge() {
+        if (hedges.sum() + 1 > requests.sum() * maxRatio) {
+            Metrics.recordOutcome("hedge.skipped");
+            return false;
+        }
+        hedges.increment();
+        return true;
+    }
+
+    // Перший успіх завершує виклик; помилка — лише коли невдалими виявилися всі відправлені примірники.
+    // Завершення результату (зокрема тайм-аут чи скасування ззовні) скасовує решту примірників
+    private static final class Race<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final List<CompletableFuture<T>> attempts = new ArrayList<>();
+        private int failed;
+
+        Race(CompletableFuture<T> primary) {
+            add(primary);
+            result.whenComplete((value, error) -> {
+                List<CompletableFuture<T>> launched = snapshot();
+                for (CompletableFuture<T> attempt : launched) {
+                    if (attempt.cancel(true) && launched.size() > 1) {
+                        Metrics.recordOutcome("hedge.cancelled");
+                    }
+                }
+            });
+        }
+
+        void add(CompletableFuture<T> attempt) {
+            int index;
+            synchronized (this) {
+                if (result.isDone()) {
+                    attempt.cancel(true);
+                    return;
+                }
+                index = attempts.size();
+                attempts.add(attempt);
+            }
+            attempt.whenComplete((value, error) -> {
+                if (error == null) {
+                    if (result.complete(value) && index > 0) {
+                        Metrics.recordOutcome("hedge.won");
+                    }
+                    return;
+                }
+                boolean allFailed;
+                synchronized (this) {
+                    allFailed = ++failed == attempts.size();
+                }
+                if (allFailed) {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                }
+            });
+        }
+
+        private synchronized List<CompletableFuture<T>> snapshot() {
+            return new ArrayList<>(attempts);
+        }
+    }
+}
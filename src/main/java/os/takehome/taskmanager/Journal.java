@@ -0,0 +1,380 @@
+package os.takehome.taskmanager;
+
+import java.io.*;
+import java.math.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/*
+ * Журнал груп, компонентів і результатів у файлі, відображеному в пам'ять (-Dtaskmanager.journal=<файл>).
+ * Записи лише дописуються в кінець; при старті журнал читається прямо з відображення, без копіювання у буфер.
+ * Запис живий, поки його не замінив новіший запис того самого ключа; стиснення переписує лише живі записи,
+ * тож час старту залежить від поточного стану, а не від історії.
+ *
+ * Заголовок: int MAGIC, int версія, short довжина + UTF-8 назва профілю обчислень.
+ * Запис: int довжина (тип + дані), byte тип, дані. Довжина пишеться останньою, тож обірваний запис
+ * має нульову довжину і при відтворенні вважається кінцем журналу. За останнім записом завжди нульова довжина.
+ *   GROUP: int група, int ліміт (-1 — без ліміту), int вага, int квота (-1 — без квоти);
+ *          у версії 1 ваги й квоти немає — при відкритті такий журнал стискається в поточну версію
+ *   COMPONENT: int група, int компонент, char символ, int ліміт, int джерело (-1 — немає)
+ *   RUN: int група — попередні результати групи більше не актуальні
+ *   RESULT: int група, int компонент, int вхід, byte вид (0 — double, 1 — long, 2 — BigInteger), значення
+ *   BATCH_RESULT: int група, int компонент, int кількість, double[] значення
+ */
+public class Journal implements Closeable {
+    public interface Visitor {
+        void group(int group, Integer timeLimit, int weight, Integer quota);
+        void component(int group, int index, char symbol, Integer timeLimit, Integer source);
+        void run(int group);
+        void result(int group, int index, int input, Number value);
+        void batchResult(int group, int index, double[] values);
+    }
+
+    private static final int MAGIC = 0x544D4A31; // "TMJ1"
+    private static final int VERSION = 2;
+    // Остання версія, у записах GROUP якої немає ваги й квоти
+    private static final int VERSION_WITHOUT_SHARES = 1;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int NONE = -1;
+
+    private static final byte GROUP = 1;
+    private static final byte COMPONENT = 2;
+    private static final byte RUN = 3;
+    private static final byte RESULT = 4;
+    private static final byte BATCH_RESULT = 5;
+
+    private static final byte KIND_DOUBLE = 0;
+    private static final byte KIND_LONG = 1;
+    private static final byte KIND_BIG = 2;
+
+    private final Path path;
+    private final String engine;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int headerSize;
+    private int version;
+    private int position;
+    private boolean closed;
+
+    // Живі записи: позиція в файлі за ключем (група / група+компонент)
+    private final Map<Integer, Integer> groupRecords;
+    private final Map<Integer, Map<Integer, Integer>> componentRecords;
+    private final Map<Integer, Map<Integer, Integer>> resultRecords;
+    private long liveBytes;
+
+    private Journal(Path path, String engine) {
+        this.path = path;
+        this.engine = engine;
+        this.groupRecords = new HashMap<>();
+        this.componentRecords = new HashMap<>();
+        this.resultRecords = new HashMap<>();
+    }
+
+    /*
+     * Відкриває журнал і відтворює його через visitor. Результати, пораховані іншим профілем обчислень,
+     * не відтворюються і відкидаються першим же стисненням.
+     */
+    public static Journal open(Path path, String engine, Visitor visitor) throws IOException {
+        Journal journal = new Journal(path, engine);
+        try {
+            journal.map(path);
+            boolean sameEngine = journal.readHeader();
+            journal.replay(visitor, sameEngine);
+            if (!sameEngine) {
+                new ArrayList<>(journal.resultRecords.keySet()).forEach(journal::dropResults);
+            }
+            // Старий журнал переписується в поточну версію до першого нового запису
+            if (!sameEngine || journal.version != VERSION) {
+                journal.compact();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (journal.channel != null) journal.channel.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    private void map(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), INITIAL_CAPACITY);
+        if (size > Integer.MAX_VALUE) throw new IOException("Journal is too large: " + size + " bytes");
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private boolean readHeader() throws IOException {
+        if (buffer.getInt(0) == 0) {
+            writeHeader(buffer);
+            position = headerSize;
+            return true;
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a task manager journal: " + path);
+        }
+        version = buffer.getInt(4);
+        if (version < VERSION_WITHOUT_SHARES || version > VERSION) {
+            throw new IOException("Unsupported journal version " + version + ": " + path);
+        }
+        byte[] name = new byte[buffer.getShort(8) & 0xFFFF];
+        buffer.get(10, name);
+        headerSize = 10 + name.length;
+        position = headerSize;
+        return engine.equals(new String(name, StandardCharsets.UTF_8));
+    }
+
+    private void writeHeader(ByteBuffer target) {
+        byte[] name = engine.getBytes(StandardCharsets.UTF_8);
+        target.putInt(0, MAGIC).putInt(4, VERSION).putShort(8, (short) name.length).put(10, name);
+        headerSize = 10 + name.length;
+        version = VERSION;
+    }
+
+    private void replay(Visitor visitor, boolean withResults) {
+        while (position + Integer.BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + Integer.BYTES + length > buffer.capacity()) break;
+            int record = position;
+            int at = record + Integer.BYTES;
+            byte type = buffer.get(at++);
+            int group = buffer.getInt(at);
+            switch (type) {
+                case GROUP: {
+                    boolean shares = version > VERSION_WITHOUT_SHARES;
+                    visitor.group(group, optional(buffer.getInt(at + 4)),
+                            shares ? buffer.getInt(at + 8) : 1, shares ? optional(buffer.getInt(at + 12)) : null);
+                    index(groupRecords, group, record);
+                    break;
+                }
+                case COMPONENT: {
+                    int component = buffer.getInt(at + 4);
+                    visitor.component(group, component, buffer.getChar(at + 8),
+                            optional(buffer.getInt(at + 10)), optional(buffer.getInt(at + 14)));
+                    index(componentRecords.computeIfAbsent(group, g -> new HashMap<>()), component, record);
+                    break;
+                }
+                case RUN:
+                    dropResults(group);
+                    liveBytes -= Integer.BYTES + length;
+                    if (withResults) visitor.run(group);
+                    break;
+                case RESULT: {
+                    int component = buffer.getInt(at + 4);
+                    if (withResults) visitor.result(group, component, buffer.getInt(at + 8), readNumber(at + 12));
+                    index(resultRecords.computeIfAbsent(group, g -> new HashMap<>()), component, record);
+                    break;
+                }
+                case BATCH_RESULT: {
+                    int component = buffer.getInt(at + 4);
+                    if (withResults) {
+                        double[] values = new double[buffer.getInt(at + 8)];
+                        buffer.slice(at + 12, values.length * Double.BYTES).asDoubleBuffer().get(values);
+                        visitor.batchResult(group, component, values);
+                    }
+                    index(resultRecords.computeIfAbsent(group, g -> new HashMap<>()), component, record);
+                    break;
+                }
+                default:
+                    // Невідомий тип — журнал пошкоджено; далі не читаємо, нові записи його перезапишуть
+                    System.err.println("Journal " + path + ": unknown record type " + type + " at " + record);
+                    return;
+            }
+            liveBytes += Integer.BYTES + length;
+            position += Integer.BYTES + length;
+        }
+    }
+
+    private Number readNumber(int at) {
+        switch (buffer.get(at)) {
+            case KIND_LONG:
+                return buffer.getLong(at + 1);
+            case KIND_BIG: {
+                byte[] magnitude = new byte[buffer.getInt(at + 1)];
+                buffer.get(at + 5, magnitude);
+                return new BigInteger(magnitude);
+            }
+            default:
+                return buffer.getDouble(at + 1);
+        }
+    }
+
+    public synchronized void recordGroup(int group, Integer timeLimit, int weight, Integer quota) throws IOException {
+        int record = begin(GROUP, 4 * Integer.BYTES);
+        buffer.putInt(group).putInt(orNone(timeLimit)).putInt(weight).putInt(orNone(quota));
+        commit(record);
+        index(groupRecords, group, record);
+    }
+
+    public synchronized void recordComponent(int group, int index, char symbol, Integer timeLimit, Integer source)
+            throws IOException {
+        int record = begin(COMPONENT, 4 * Integer.BYTES + Character.BYTES);
+        buffer.putInt(group).putInt(index).putChar(symbol).putInt(orNone(timeLimit)).putInt(orNone(source));
+        commit(record);
+        index(componentRecords.computeIfAbsent(group, g -> new HashMap<>()), index, record);
+    }
+
+    public synchronized void recordRun(int group) throws IOException {
+        int record = begin(RUN, Integer.BYTES);
+        buffer.putInt(group);
+        commit(record);
+        // Сам RUN не живий: після стиснення досить того, що старих результатів уже немає
+        liveBytes -= recordSize(record);
+        dropResults(group);
+    }
+
+    public synchronized void recordResult(int group, int index, int input, Number value) throws IOException {
+        byte[] magnitude = value instanceof BigInteger ? ((BigInteger) value).toByteArray() : null;
+        int valueSize = magnitude != null ? Integer.BYTES + magnitude.length : Long.BYTES;
+        int record = begin(RESULT, 3 * Integer.BYTES + 1 + valueSize);
+        buffer.putInt(group).putInt(index).putInt(input);
+        if (magnitude != null) {
+            buffer.put(KIND_BIG).putInt(magnitude.length).put(magnitude);
+        } else if (value instanceof Long || value instanceof Integer) {
+            buffer.put(KIND_LONG).putLong(value.longValue());
+        } else {
+            buffer.put(KIND_DOUBLE).putDouble(value.doubleValue());
+        }
+        commit(record);
+        index(resultRecords.computeIfAbsent(group, g -> new HashMap<>()), index, record);
+    }
+
+    public synchronized void recordBatchResult(int group, int index, double[] values) throws IOException {
+        int record = begin(BATCH_RESULT, 3 * Integer.BYTES + values.length * Double.BYTES);
+        buffer.putInt(group).putInt(index).putInt(values.length);
+        buffer.asDoubleBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Double.BYTES);
+        commit(record);
+        index(resultRecords.computeIfAbsent(group, g -> new HashMap<>()), index, record);
+    }
+
+    // Резервує місце під запис і ставить позицію буфера на початок даних; довжина поки нульова
+    private int begin(byte type, int payloadSize) throws IOException {
+        if (closed) throw new IOException("Journal is closed");
+        int size = Integer.BYTES + 1 + payloadSize;
+        // Нульова довжина після запису позначає кінець журналу
+        ensureCapacity(position + size + Integer.BYTES);
+        buffer.position(position + Integer.BYTES).put(type);
+        return position;
+    }
+
+    // Спершу нульова довжина за записом: якщо відтворення зупинилося на обірваному чи невідомому записі,
+    // старі байти після нового запису не прочитаються як записи
+    private void commit(int record) {
+        int end = buffer.position();
+        buffer.putInt(end, 0);
+        buffer.putInt(record, end - record - Integer.BYTES);
+        position = end;
+        liveBytes += end - record;
+    }
+
+    private void ensureCapacity(long required) throws IOException {
+        if (required <= buffer.capacity()) return;
+        long capacity = Math.max(required, (long) buffer.capacity() * 2);
+        if (capacity > Integer.MAX_VALUE) throw new IOException("Journal is full: " + path);
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private void index(Map<Integer, Integer> records, int key, int record) {
+        Integer replaced = records.put(key, record);
+        if (replaced != null) {
+            liveBytes -= recordSize(replaced);
+        }
+    }
+
+    private void dropResults(int group) {
+        Map<Integer, Integer> results = resultRecords.remove(group);
+        if (results != null) {
+            for (int record : results.values()) {
+                liveBytes -= recordSize(record);
+            }
+        }
+    }
+
+    private int recordSize(int record) {
+        return Integer.BYTES + buffer.getInt(record);
+    }
+
+    // Частка відмерлих записів, після якої стиснення окупається
+    public synchronized boolean needsCompaction(long minGarbageBytes) {
+        long garbage = position - headerSize - liveBytes;
+        return garbage > minGarbageBytes && garbage > liveBytes;
+    }
+
+    public synchronized long getSizeBytes() {
+        return position;
+    }
+
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /*
+     * Копіює живі записи в новий файл і атомарно підміняє ним журнал.
+     * Позиція запису в файлі не годиться для порядку: компонент, змінений після run, записаний пізніше за
+     * свій результат. Тому спершу йдуть усі групи, потім компоненти, потім результати, кожні за (група, номер).
+     */
+    public synchronized void compact() throws IOException {
+        if (closed) return;
+        List<Integer> live = new ArrayList<>(new TreeMap<>(groupRecords).values());
+        new TreeMap<>(componentRecords).values().forEach(records -> live.addAll(new TreeMap<>(records).values()));
+        new TreeMap<>(resultRecords).values().forEach(records -> live.addAll(new TreeMap<>(records).values()));
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Map<Integer, Integer> moved = new HashMap<>();
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            byte[] name = engine.getBytes(StandardCharsets.UTF_8);
+            // Запас удвічі, щоб одразу після стиснення нові записи не змушували розширювати файл
+            long capacity = Math.max(INITIAL_CAPACITY, 2 * (10L + name.length + liveBytes + Integer.BYTES));
+            MappedByteBuffer out = target.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(Integer.MAX_VALUE, capacity));
+            boolean withoutShares = version == VERSION_WITHOUT_SHARES;
+            writeHeader(out);
+            out.position(headerSize);
+            for (int record : live) {
+                moved.put(record, out.position());
+                if (withoutShares && buffer.get(record + Integer.BYTES) == GROUP) {
+                    // Група з журналу версії 1 отримує типові вагу й квоту
+                    out.putInt(1 + 4 * Integer.BYTES).put(GROUP)
+                            .put(buffer.slice(record + Integer.BYTES + 1, 2 * Integer.BYTES))
+                            .putInt(1).putInt(NONE);
+                } else {
+                    out.put(buffer.slice(record, recordSize(record)));
+                }
+            }
+            position = out.position();
+            liveBytes = position - headerSize;
+            out.force();
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel.close();
+        map(path);
+        groupRecords.replaceAll((key, record) -> moved.get(record));
+        componentRecords.values().forEach(records -> records.replaceAll((key, record) -> moved.get(record)));
+        resultRecords.values().forEach(records -> records.replaceAll((key, record) -> moved.get(record)));
+    }
+
+    public synchronized void force() {
+        if (!closed) {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        buffer.force();
+        channel.close();
+        closed = true;
+    }
+
+    private static int orNone(Integer value) {
+        return value == null ? NONE : value;
+    }
+
+    private static Integer optional(int value) {
+        return value == NONE ? null : value;
+    }
+}
@@ -0,0 +1,229 @@
+package os.takehome.taskmanager;
+
+import os.takehome.metrics.LatencyHistogram;
+import os.takehome.metrics.Metrics;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Безголовий режим: проганяє через CommandProcessor сценарій команд або згенероване навантаження
+ * і друкує звіт про пропускну здатність, затримки та тайм-аути.
+ *
+ * Сценарій (--script <файл>): звичайні команди по одній на рядок, а також
+ *   sleep <мс>   — пауза між командами
+ *   await        — дочекатися завершення всіх запущених груп
+ *   # ...        — коментар
+ *
+ * Згенероване навантаження (--load) задається властивостями taskmanager.load.*:
+ *   groups=100, components=4 (на групу), mix=F:1,B:1,P:1,S:1 (ваги символів),
+ *   rate=10 (груп за секунду, пуассонівський потік), input=0..5, timeLimit=0..0 (секунди, 0 — без ліміту),
+ *   seed, drainSeconds=600, verbose=false, report=<файл для звіту>.
+ */
+public class LoadGenerator {
+    private final CommandProcessor commandProcessor;
+    private final NotificationManager notificationManager;
+    private final LatencyHistogram groupLatency;
+    private final List<CompletableFuture<Void>> runs;
+    private final PrintStream console;
+    private final boolean verbose;
+    private int commandErrors;
+
+    public LoadGenerator(CommandProcessor commandProcessor, NotificationManager notificationManager) {
+        this.commandProcessor = commandProcessor;
+        this.notificationManager = notificationManager;
+        this.groupLatency = new LatencyHistogram();
+        this.runs = new ArrayList<>();
+        this.console = System.out;
+        this.verbose = Boolean.getBoolean("taskmanager.load.verbose");
+    }
+
+    public void runScript(Path script) throws IOException, InterruptedException {
+        List<String> lines = Files.readAllLines(script, StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        silenceOutput();
+        try {
+            for (String line : lines) {
+                String command = line.trim();
+                if (command.isEmpty() || command.startsWith("#")) continue;
+                String[] parts = command.split("\\s+");
+                if (parts[0].equalsIgnoreCase("sleep")) {
+                    Thread.sleep(Long.parseLong(parts[1]));
+                } else if (parts[0].equalsIgnoreCase("await")) {
+                    awaitRuns(Long.MAX_VALUE);
+                } else {
+                    submit(command);
+                }
+            }
+            awaitRuns(drainMillis());
+        } finally {
+            restoreOutput();
+        }
+        report("script " + script, start);
+    }
+
+    public void runGenerated() throws InterruptedException {
+        int groups = Integer.getInteger("taskmanager.load.groups", 100);
+        int components = Integer.getInteger("taskmanager.load.components", 4);
+        double rate = Double.parseDouble(System.getProperty("taskmanager.load.rate", "10"));
+        int[] inputRange = parseRange(System.getProperty("taskmanager.load.input", "0..5"));
+        int[] limitRange = parseRange(System.getProperty("taskmanager.load.timeLimit", "0..0"));
+        char[] mix = parseMix(System.getProperty("taskmanager.load.mix", "F:1,B:1,P:1,S:1"));
+        Random random = new Random(Long.getLong("taskmanager.load.seed", System.nanoTime()));
+        if (components < 1) throw new IllegalArgumentException("taskmanager.load.components must be positive");
+        if (rate <= 0) throw new IllegalArgumentException("taskmanager.load.rate must be positive");
+
+        String description = groups + " groups x " + components + " components, mix " + new String(mix) +
+                ", " + rate + " groups/s, input " + inputRange[0] + ".." + inputRange[1] +
+                ", time limit " + limitRange[0] + ".." + limitRange[1] + "s";
+        console.println("Load: " + description);
+
+        long start = System.nanoTime();
+        long nextArrival = start;
+        silenceOutput();
+        try {
+            for (int group = 0; group < groups; group++) {
+                // Експоненційні інтервали між прибуттями дають пуассонівський потік груп
+                nextArrival += (long) (-Math.log(1 - random.nextDouble()) / rate * 1_000_000_000L);
+                long wait = nextArrival - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+
+                int limit = between(random, limitRange);
+                submit("group " + group + (limit > 0 ? " limit " + limit : ""));
+                for (int i = 0; i < components; i++) {
+                    submit("new " + mix[random.nextInt(mix.length)]);
+                }
+                submit("run " + between(random, inputRange));
+            }
+            awaitRuns(drainMillis());
+        } finally {
+            restoreOutput();
+        }
+        report(description, start);
+    }
+
+    private void submit(String command) {
+        long submittedAt = System.nanoTime();
+        CompletableFuture<Void> run;
+        try {
+            run = commandProcessor.execute(command);
+        } catch (Exception e) {
+            commandErrors++;
+            console.println("Error in '" + command + "': " + e.getMessage());
+            return;
+        }
+        if (command.toLowerCase().startsWith("run")) {
+            runs.add(run.whenComplete((v, e) -> groupLatency.recordNanos(System.nanoTime() - submittedAt)));
+        }
+    }
+
+    private void awaitRuns(long timeoutMillis) throws InterruptedException {
+        try {
+            CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Збої окремих компонентів враховуються у звіті
+        } catch (TimeoutException e) {
+            console.println("Gave up waiting after " + timeoutMillis + " ms; unfinished groups are reported as pending");
+        }
+    }
+
+    private void report(String description, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long pendingGroups = runs.stream().filter(run -> !run.isDone()).count();
+        Map<String, Long> outcomes = Metrics.getOutcomes();
+        long completed = outcomes.getOrDefault("completed", 0L);
+        long failed = outcomes.getOrDefault("failed", 0L);
+        long timeouts = outcomes.getOrDefault("failed.timeout", 0L);
+        long rejected = outcomes.getOrDefault("failed.rejected", 0L);
+        long errors = outcomes.getOrDefault("failed.error", 0L);
+        long finished = completed + failed;
+
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        out.println("=== Load report ===");
+        out.println("Workload: " + description);
+        out.printf(Locale.ROOT, "Duration: %.1f s%n", seconds);
+        out.println("Groups: " + runs.size() + " run, " + pendingGroups + " still pending, " +
+                commandErrors + " command errors");
+        out.printf(Locale.ROOT, "Components: %d finished (%.1f/s), %d completed, %d timed out (%.1f%%), %d rejected, %d errors%n",
+                finished, finished / seconds, completed, timeouts, percent(timeouts, finished), rejected, errors);
+        out.println("Group latency (ms): " + describe(groupLatency));
+        out.println("Component end-to-end latency by symbol (ms):");
+        for (char symbol : Metrics.getSymbols()) {
+            out.println("  " + symbol + ": " + describe(Metrics.histogram(symbol, Metrics.Phase.END_TO_END)) +
+                    "; queue wait " + describe(Metrics.histogram(symbol, Metrics.Phase.QUEUE_WAIT)));
+        }
+        out.flush();
+
+        console.print(text);
+        String reportFile = System.getProperty("taskmanager.load.report");
+        if (reportFile != null) {
+            try {
+                Files.writeString(Paths.get(reportFile), text.toString(), StandardCharsets.UTF_8);
+                console.println("Report written to " + reportFile);
+            } catch (IOException e) {
+                System.err.println("Failed to write report: " + e.getMessage());
+            }
+        }
+    }
+
+    private static String describe(LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "n=%d p50=%.1f p90=%.1f p99=%.1f max=%.1f",
+                histogram.getCount(),
+                histogram.getPercentileMicros(0.5) / 1000.0,
+                histogram.getPercentileMicros(0.9) / 1000.0,
+                histogram.getPercentileMicros(0.99) / 1000.0,
+                histogram.getMaxMicros() / 1000.0);
+    }
+
+    private static double percent(long part, long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+
+    // Вивід команд і сповіщень тисяч груп лише заважає; звіт друкується в початковий потік
+    private void silenceOutput() {
+        if (!verbose) {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    private void restoreOutput() {
+        notificationManager.flush();
+        System.setOut(console);
+    }
+
+    private static long drainMillis() {
+        return Long.getLong("taskmanager.load.drainSeconds", 600L) * 1000;
+    }
+
+    private static int between(Random random, int[] range) {
+        return range[0] + random.nextInt(range[1] - range[0] + 1);
+    }
+
+    private static int[] parseRange(String value) {
+        int separator = value.indexOf("..");
+        int from = Integer.parseInt((separator < 0 ? value : value.substring(0, separator)).trim());
+        int to = separator < 0 ? from : Integer.parseInt(value.substring(separator + 2).trim());
+        if (to < from) throw new IllegalArgumentException("Invalid range: " + value);
+        return new int[]{from, to};
+    }
+
+    // "F:3,P:1" перетворюється на FFFP, з якого символи вибираються рівномірно
+    private static char[] parseMix(String value) {
+        StringBuilder mix = new StringBuilder();
+        for (String item : value.split(",")) {
+            String[] parts = item.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                mix.append(parts[0].trim().charAt(0));
+            }
+        }
+        if (mix.length() == 0) throw new IllegalArgumentException("Empty component mix");
+        return mix.toString().toCharArray();
+    }
+}
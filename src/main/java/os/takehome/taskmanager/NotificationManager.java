@@ -1,30 +1,114 @@
 package os.takehome.taskmanager;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
 
+/*
+ * Сповіщення надходять з багатьох потоків завершення одночасно. Виробники лише кладуть повідомлення
+ * в чергу без блокувань; окремий потік-споживач виводить їх у консоль пакетами.
+ */
 public class NotificationManager {
-    private boolean isInteractiveMode;
+    public enum OverflowPolicy {
+        DROP_NEWEST, DROP_OLDEST
+    }
+
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private volatile boolean isInteractiveMode;
+    private volatile boolean running;
     private final Queue<String> pendingNotifications;
+    private final AtomicInteger pendingCount;
+    private final AtomicLong droppedCount;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final ReentrantLock outputLock;
+    private final Thread drainer;
+    private long reportedDrops;
 
     public NotificationManager() {
+        this(Integer.getInteger("taskmanager.notifications.capacity", 10_000),
+                OverflowPolicy.valueOf(System.getProperty("taskmanager.notifications.overflow", "drop_newest").toUpperCase()));
+    }
+
+    public NotificationManager(int capacity, OverflowPolicy overflowPolicy) {
         this.isInteractiveMode = false;
-        this.pendingNotifications = new LinkedList<>();
+        this.pendingNotifications = new ConcurrentLinkedQueue<>();
+        this.pendingCount = new AtomicInteger();
+        this.droppedCount = new AtomicLong();
+        this.capacity = Math.max(1, capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.outputLock = new ReentrantLock();
+        this.running = true;
+        this.drainer = new Thread(this::drainLoop, "notification-drainer");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
     }
 
     public void sendNotification(String message) {
-        if (isInteractiveMode) {
-            pendingNotifications.offer(message);
-        } else {
-            System.out.println(message);
+        if (pendingCount.incrementAndGet() > capacity) {
+            if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                pendingCount.decrementAndGet();
+                droppedCount.incrementAndGet();
+                return;
+            }
+            if (pendingNotifications.poll() != null) {
+                pendingCount.decrementAndGet();
+                droppedCount.incrementAndGet();
+            }
+        }
+        pendingNotifications.offer(message);
+        if (!isInteractiveMode) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (isInteractiveMode || !drainBatch()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    // Повертає false, якщо виводити було нічого
+    private boolean drainBatch() {
+        outputLock.lock();
+        try {
+            StringBuilder batch = new StringBuilder();
+            long dropped = droppedCount.get();
+            if (dropped > reportedDrops) {
+                batch.append("[").append(dropped - reportedDrops).append(" notifications dropped]").append(System.lineSeparator());
+                reportedDrops = dropped;
+            }
+            String message;
+            int drained = 0;
+            while (drained < BATCH_SIZE && (message = pendingNotifications.poll()) != null) {
+                pendingCount.decrementAndGet();
+                batch.append(message).append(System.lineSeparator());
+                drained++;
+            }
+            if (batch.length() == 0) return false;
+            System.out.print(batch);
+            System.out.flush();
+            return true;
+        } finally {
+            outputLock.unlock();
+        }
+    }
+
+    public void flush() {
+        while (drainBatch()) {
+            // Виводимо все накопичене до повернення
         }
     }
 
     public void toggleInteractiveMode() {
         isInteractiveMode = !isInteractiveMode;
         if (!isInteractiveMode) {
-            while (!pendingNotifications.isEmpty()) {
-                System.out.println(pendingNotifications.poll());
-            }
+            flush();
         }
         System.out.println("Interactive mode: " + (isInteractiveMode ? "ON" : "OFF"));
     }
@@ -32,4 +116,20 @@ public class NotificationManager {
     public boolean isInteractiveMode() {
         return isInteractiveMode;
     }
-}
\ No newline at end of file
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(drainer);
+        if (!isInteractiveMode) {
+            flush();
+        }
+    }
+}
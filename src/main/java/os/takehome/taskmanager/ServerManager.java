@@ -1,71 +1,456 @@
 package os.takehome.taskmanager;
 
+import os.takehome.component.AsyncCalculationComponent;
 import os.takehome.component.CalculationComponent;
 import os.takehome.component.ComponentFactory;
+import os.takehome.metrics.LatencyHistogram;
+import os.takehome.metrics.Metrics;
+import os.takehome.transport.ChunkSink;
+import os.takehome.transport.Frame;
+import os.takehome.transport.FrameCodec;
+import os.takehome.transport.NioServer;
+import os.takehome.transport.ProgressSink;
+import os.takehome.transport.RequestHandler;
+import os.takehome.transport.TransportMode;
+import os.takehome.transport.WorkerBusyException;
 
 import java.io.*;
 import java.net.*;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 public class ServerManager {
-    private final ServerSocket[] serverSockets;
+    private ServerSocket serverSocket;
     private final ExecutorService serverExecutor;
-    private static final int PORT_START = 8000;
-    private static final int MAX_PORTS = 10;
+    private final ExecutorService computeExecutor;
+    private final TransportMode transportMode;
+    private final ExecutorMode executorMode;
+    private final ComputeMode computeMode;
+    private NioServer nioServer;
+    private static final int PORT = Integer.getInteger("taskmanager.port", 8000);
+    private static final int BATCH_CHUNK_SIZE = Integer.getInteger("taskmanager.batch.chunkSize", 256);
+    private static final int MIN_RETRY_AFTER_MS = 10;
+    private static final int MAX_RETRY_AFTER_MS = 5000;
+    // Обчислення на таймерах тримають лише кілька об'єктів, тож їх допускається значно більше, ніж задач пулу
+    private static final int MAX_SCHEDULED = Integer.getInteger("taskmanager.server.maxScheduled", 100_000);
+    private static final int IO_THREADS = Integer.getInteger("taskmanager.ioThreads",
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+    private final LongAdder cancelledComputations;
+    private final LongAdder reclaimedComputeMillis;
+    private final AtomicInteger activeComputations;
+    private final AtomicInteger scheduledComputations;
+    private final AtomicInteger admittedComputations;
+    private final LongAdder busyRejections;
+    private final AtomicInteger blockingConnections;
     private volatile boolean isServerRunning;
 
     public ServerManager() {
-        this.serverSockets = new ServerSocket[MAX_PORTS];
-        this.serverExecutor = Executors.newCachedThreadPool();
+        this(TransportMode.fromSystemProperty(), ExecutorMode.fromSystemProperty());
+    }
+
+    public ServerManager(TransportMode transportMode, ExecutorMode executorMode) {
+        this(transportMode, executorMode, ComputeMode.fromSystemProperty(ComputeMode.SHARED));
+    }
+
+    public ServerManager(TransportMode transportMode, ExecutorMode executorMode, ComputeMode computeMode) {
+        this.serverExecutor = executorMode.newExecutor();
+        this.computeExecutor = computeMode.newExecutor(serverExecutor);
+        this.transportMode = transportMode;
+        this.executorMode = executorMode;
+        this.computeMode = computeMode;
+        this.cancelledComputations = new LongAdder();
+        this.reclaimedComputeMillis = new LongAdder();
+        this.activeComputations = new AtomicInteger();
+        this.scheduledComputations = new AtomicInteger();
+        this.admittedComputations = new AtomicInteger();
+        this.busyRejections = new LongAdder();
+        this.blockingConnections = new AtomicInteger();
         this.isServerRunning = false;
-        startServer();
+        registerGauges();
+        if (transportMode == TransportMode.NIO) {
+            startNioServer();
+        } else {
+            startServer();
+        }
     }
 
-    private void startServer() {
+    private void registerGauges() {
+        Metrics.registerGauge("server.activeComputations", activeComputations::get);
+        Metrics.registerGauge("server.scheduledComputations", scheduledComputations::get);
+        Metrics.registerGauge("server.openConnections", this::getOpenConnections);
+        Metrics.registerGauge("server.cancelledComputations", this::getCancelledComputations);
+        Metrics.registerGauge("server.reclaimedComputeMillis", this::getReclaimedComputeMillis);
+        Metrics.registerGauge("server.admittedComputations", admittedComputations::get);
+        Metrics.registerGauge("server.busyRejections", this::getBusyRejections);
+        Metrics.registerGauge("server.executorQueueDepth", () -> Math.max(0, admittedComputations.get() - activeComputations.get()));
+    }
+
+    private void startNioServer() {
         try {
-            for (int i = 0; i < MAX_PORTS; i++) {
-                serverSockets[i] = new ServerSocket(PORT_START + i);
-                final int componentIndex = i;
+            nioServer = new NioServer(IO_THREADS, new RequestHandler() {
+                @Override
+                public CompletableFuture<Number> onRequest(Frame request, ProgressSink progress) {
+                    return calculateAsync(request, progress);
+                }
+
+                @Override
+                public CompletableFuture<Void> onBatchRequest(Frame request, ChunkSink sink) {
+                    return calculateBatchAsync(request, sink);
+                }
+            });
+            nioServer.bind(PORT);
+            isServerRunning = true;
+            System.out.println("Component server started on port " + PORT +
+                    " (nio, " + IO_THREADS + " I/O threads, " + describeCompute() + ")");
+        } catch (IOException e) {
+            System.err.println("Failed to start server: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Усі компоненти обслуговуються одним портом; запит сам вказує групу, компонент і калькулятор
+    private static CalculationComponent route(Frame request) {
+        if (!ComponentFactory.isValidSymbol(request.getSymbol())) {
+            throw new IllegalArgumentException("Unknown component symbol " + request.getSymbol() +
+                    " for component " + request.getComponent() + " of group " + request.getGroup());
+        }
+        return ComponentFactory.getComponent(request.getSymbol());
+    }
+
+    private CompletableFuture<Number> calculateAsync(Frame request, ProgressSink progress) {
+        CalculationComponent calculator;
+        try {
+            calculator = route(request);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        char componentSymbol = request.getSymbol();
+        int input = request.getInput();
+        boolean exact = request.hasFlag(Frame.FLAG_EXACT);
+        if (calculator instanceof AsyncCalculationComponent) {
+            AsyncCalculationComponent async = (AsyncCalculationComponent) calculator;
+            if (!tryAdmit(scheduledComputations, MAX_SCHEDULED, 1)) {
+                return CompletableFuture.failedFuture(busyScheduled(componentSymbol, calculator.estimateMillis(input)));
+            }
+            CompletableFuture<? extends Number> computation;
+            if (request.hasFlag(Frame.FLAG_PROGRESS)) {
+                computation = async.calculateAsync(input, progress::accept);
+            } else {
+                computation = exact ? async.calculateExactAsync(input) : async.calculateAsync(input);
+            }
+            return trackScheduled(componentSymbol, calculator.estimateMillis(input), computation);
+        }
+        if (!tryAdmit(admittedComputations, computeMode.getAdmissionLimit(), 1)) {
+            return CompletableFuture.failedFuture(busy(componentSymbol, 1, calculator.estimateMillis(input)));
+        }
+        CancellableFuture<Number> result = new CancellableFuture<>();
+        trackReclaimedTime(result, componentSymbol, calculator.estimateMillis(input),
+                () -> result.complete(exact ? calculator.calculateExact(input) : calculator.calculate(input)));
+        return result;
+    }
+
+    // Пакет ділиться на частини, які обчислюються паралельно й надсилаються клієнту щойно готові
+    private CompletableFuture<Void> calculateBatchAsync(Frame request, ChunkSink sink) {
+        CalculationComponent calculator;
+        try {
+            calculator = route(request);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        char componentSymbol = request.getSymbol();
+        int[] inputs = request.getInputs();
+        CancellableFuture<Void> result = new CancellableFuture<>();
+        int chunkCount = (inputs.length + BATCH_CHUNK_SIZE - 1) / BATCH_CHUNK_SIZE;
+        if (chunkCount == 0) {
+            result.complete(null);
+            return result;
+        }
+        if (calculator instanceof AsyncCalculationComponent) {
+            return calculateBatchScheduled((AsyncCalculationComponent) calculator, inputs, sink, result);
+        }
+        if (!tryAdmit(admittedComputations, computeMode.getAdmissionLimit(), chunkCount)) {
+            return CompletableFuture.failedFuture(busy(componentSymbol, chunkCount,
+                    calculator.estimateMillis(inputs[0]) * Math.min(inputs.length, BATCH_CHUNK_SIZE)));
+        }
+        AtomicInteger remaining = new AtomicInteger(chunkCount);
+        for (int offset = 0; offset < inputs.length; offset += BATCH_CHUNK_SIZE) {
+            final int chunkOffset = offset;
+            int[] chunk = Arrays.copyOfRange(inputs, offset, Math.min(inputs.length, offset + BATCH_CHUNK_SIZE));
+            long estimate = 0;
+            for (int input : chunk) {
+                estimate += calculator.estimateMillis(input);
+            }
+            trackReclaimedTime(result, componentSymbol, estimate, () -> {
+                sink.accept(chunkOffset, calculator.calculateBatch(chunk));
+                if (remaining.decrementAndGet() == 0) {
+                    result.complete(null);
+                }
+            });
+        }
+        return result;
+    }
 
-                serverExecutor.submit(() -> handleServerPort(componentIndex));
+    /*
+     * Обчислення на таймерах не займають потоків, тому не проходять через пул; місце під них резервує викликач
+     * за окремим, більшим лімітом. Скасування result знімає заплановані кроки; заощаджений час рахується так само,
+     * як для пулу.
+     */
+    private CompletableFuture<Number> trackScheduled(char symbol, long estimateMillis,
+                                                     CompletableFuture<? extends Number> computation) {
+        long started = System.nanoTime();
+        CancellableFuture<Number> result = new CancellableFuture<>();
+        result.onCancel(() -> {
+            if (computation.isDone()) return;
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            cancelledComputations.increment();
+            reclaimedComputeMillis.add(Math.max(0, estimateMillis - elapsedMillis));
+        });
+        result.addTask(computation);
+        computation.whenComplete((value, e) -> {
+            scheduledComputations.decrementAndGet();
+            Metrics.recordLatency(symbol, Metrics.Phase.COMPUTE, System.nanoTime() - started);
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(value);
             }
+        });
+        return result;
+    }
+
+    // Частина пакета надсилається, щойно завершилися всі її входи
+    private CompletableFuture<Void> calculateBatchScheduled(AsyncCalculationComponent calculator, int[] inputs,
+                                                            ChunkSink sink, CancellableFuture<Void> result) {
+        char componentSymbol = calculator.getSymbol();
+        if (!tryAdmit(scheduledComputations, MAX_SCHEDULED, inputs.length)) {
+            return CompletableFuture.failedFuture(busyScheduled(componentSymbol, calculator.estimateMillis(inputs[0])));
+        }
+        CompletableFuture<?>[] computations = new CompletableFuture[inputs.length];
+        // Один слухач на весь пакет: додавати кожне обчислення як окрему задачу надто дорого для великих пакетів
+        result.onCancel(() -> {
+            for (CompletableFuture<?> computation : computations) {
+                if (computation != null) {
+                    computation.cancel(true);
+                }
+            }
+        });
+        AtomicInteger remaining = new AtomicInteger((inputs.length + BATCH_CHUNK_SIZE - 1) / BATCH_CHUNK_SIZE);
+        int launched = 0;
+        for (int offset = 0; offset < inputs.length && !result.isDone(); offset += BATCH_CHUNK_SIZE) {
+            final int chunkOffset = offset;
+            double[] values = new double[Math.min(BATCH_CHUNK_SIZE, inputs.length - offset)];
+            CompletableFuture<?>[] chunk = new CompletableFuture[values.length];
+            for (int i = 0; i < values.length; i++) {
+                final int index = i;
+                int input = inputs[offset + i];
+                CompletableFuture<Number> computation = trackScheduled(componentSymbol,
+                        calculator.estimateMillis(input), calculator.calculateAsync(input));
+                computations[offset + i] = computation;
+                launched++;
+                chunk[i] = computation.thenAccept(value -> values[index] = value.doubleValue());
+            }
+            CompletableFuture.allOf(chunk).whenComplete((v, e) -> {
+                if (e != null) {
+                    // Решта частин пакета вже не потрібна: знімаємо їхні кроки з таймерів
+                    result.fail(e);
+                } else {
+                    sink.accept(chunkOffset, values);
+                    if (remaining.decrementAndGet() == 0) {
+                        result.complete(null);
+                    }
+                }
+            });
+        }
+        // Місця входів, що так і не стартували, повертаються одразу
+        scheduledComputations.addAndGet(launched - inputs.length);
+        if (result.isCompletedExceptionally()) {
+            // Скасування чи помилка частини могли прийти, поки пакет ще запускався
+            for (CompletableFuture<?> computation : computations) {
+                if (computation != null) {
+                    computation.cancel(true);
+                }
+            }
+        }
+        return result;
+    }
+
+    private String describeCompute() {
+        if (computeMode == ComputeMode.SHARED) {
+            return executorMode.name().toLowerCase() + " compute threads";
+        }
+        return "work-stealing compute pool of " + computeMode.getParallelism() +
+                ", busy above " + computeMode.getAdmissionLimit() + " admitted";
+    }
+
+    // Місце в черзі резервується до постановки задачі; порожній вузол приймає навіть більший за ліміт пакет
+    private boolean tryAdmit(AtomicInteger counter, int limit, int computations) {
+        while (true) {
+            int admitted = counter.get();
+            if (admitted > 0 && admitted + computations > limit) {
+                busyRejections.increment();
+                return false;
+            }
+            if (counter.compareAndSet(admitted, admitted + computations)) {
+                return true;
+            }
+        }
+    }
+
+    // Затримка повтору: скільки часу знадобиться пулу, щоб звільнити стільки місць, скільки потребує запит.
+    // Поки вимірювань немає, спираємося на оцінку тривалості від калькулятора
+    private WorkerBusyException busy(char symbol, int computations, long estimateMillis) {
+        return busy(symbol, estimateMillis, (double) computations / computeMode.getParallelism());
+    }
+
+    // Обчислення на таймерах ідуть одночасно, тож місця почнуть звільнятися приблизно через одне обчислення
+    private WorkerBusyException busyScheduled(char symbol, long estimateMillis) {
+        return busy(symbol, estimateMillis, 1);
+    }
+
+    private WorkerBusyException busy(char symbol, long estimateMillis, double rounds) {
+        LatencyHistogram computeLatency = Metrics.histogram(symbol, Metrics.Phase.COMPUTE);
+        double meanMillis = computeLatency.getCount() > 0 ? computeLatency.getMeanMicros() / 1000.0 : estimateMillis;
+        double wait = meanMillis * rounds;
+        return new WorkerBusyException((int) Math.max(MIN_RETRY_AFTER_MS, Math.min(MAX_RETRY_AFTER_MS, wait)));
+    }
+
+    /*
+     * Запускає обчислення в пулі так, щоб скасування result перервало потік.
+     * Заощаджений час оцінюється як різниця між очікуваною тривалістю і вже витраченим часом.
+     * ForkJoinTask.cancel не перериває потік, тому потік обчислення перериваємо явно.
+     */
+    private void trackReclaimedTime(CancellableFuture<?> result, char symbol, long estimateMillis, Runnable computation) {
+        AtomicLong startedAt = new AtomicLong();
+        AtomicBoolean finished = new AtomicBoolean();
+        AtomicBoolean released = new AtomicBoolean();
+        Thread[] runner = new Thread[1];
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                admittedComputations.decrementAndGet();
+            }
+        };
+        result.onCancel(() -> {
+            if (finished.get()) return;
+            long started = startedAt.get();
+            long elapsedMillis = started == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            cancelledComputations.increment();
+            reclaimedComputeMillis.add(Math.max(0, estimateMillis - elapsedMillis));
+            if (started == 0) {
+                release.run();
+            }
+            synchronized (runner) {
+                if (runner[0] != null) {
+                    runner[0].interrupt();
+                }
+            }
+        });
+        try {
+            result.addTask(computeExecutor.submit(() -> {
+                long started = System.nanoTime();
+                startedAt.set(started);
+                synchronized (runner) {
+                    runner[0] = Thread.currentThread();
+                }
+                activeComputations.incrementAndGet();
+                try {
+                    computation.run();
+                } catch (RuntimeException e) {
+                    // Слухач скасування цієї задачі не повинен рахувати її скасованою чи переривати власний потік
+                    finished.set(true);
+                    result.fail(e);
+                } finally {
+                    finished.set(true);
+                    synchronized (runner) {
+                        runner[0] = null;
+                        // Переривання, що запізнилося, не повинно зачепити наступну задачу цього потоку
+                        Thread.interrupted();
+                    }
+                    activeComputations.decrementAndGet();
+                    release.run();
+                    Metrics.recordLatency(symbol, Metrics.Phase.COMPUTE, System.nanoTime() - started);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            finished.set(true);
+            release.run();
+            result.fail(e);
+        }
+    }
+
+    private void startServer() {
+        try {
+            serverSocket = new ServerSocket(PORT);
+            serverExecutor.submit(this::acceptConnections);
             isServerRunning = true;
-            System.out.println("Component server started on ports " + PORT_START + "-" + (PORT_START + MAX_PORTS - 1));
+            System.out.println("Component server started on port " + PORT +
+                    " (blocking, " + executorMode.name().toLowerCase() + " threads, " + describeCompute() + ")");
         } catch (IOException e) {
             System.err.println("Failed to start server: " + e.getMessage());
             System.exit(1);
         }
     }
 
-    private void handleServerPort(int componentIndex) {
+    private void acceptConnections() {
         try {
-            System.out.println("Server listening on port " + (PORT_START + componentIndex));
             while (!Thread.currentThread().isInterrupted()) {
-                Socket clientSocket = serverSockets[componentIndex].accept();
+                Socket clientSocket = serverSocket.accept();
                 handleServerClient(clientSocket);
             }
         } catch (IOException e) {
             if (!Thread.currentThread().isInterrupted()) {
-                System.err.println("Server error on port " + (PORT_START + componentIndex) + ": " + e.getMessage());
+                System.err.println("Server error on port " + PORT + ": " + e.getMessage());
             }
         }
     }
 
     private void handleServerClient(Socket socket) {
         serverExecutor.submit(() -> {
-            try (ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
-                 ObjectInputStream in = new ObjectInputStream(socket.getInputStream())) {
+            blockingConnections.incrementAndGet();
+            Map<Long, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+                Outbox outbox = new Outbox(out);
 
                 while (!socket.isClosed() && !Thread.currentThread().isInterrupted()) {
                     try {
-                        int input = in.readInt();
-                        char componentSymbol = in.readChar();
-
-                        CalculationComponent calculator = ComponentFactory.getComponent(componentSymbol);
-                        double result = calculator.calculate(input);
-
-                        out.writeDouble(result);
-                        out.flush();
+                        Frame request = FrameCodec.read(in);
+                        long requestId = request.getRequestId();
+                        CompletableFuture<?> computation;
+                        CompletableFuture<?> response;
+                        switch (request.getType()) {
+                            case Frame.PING:
+                                sendResponse(out, Frame.pong(requestId));
+                                continue;
+                            case Frame.CANCEL:
+                                computation = inFlight.remove(requestId);
+                                if (computation != null) {
+                                    computation.cancel(true);
+                                }
+                                continue;
+                            case Frame.REQUEST: {
+                                CompletableFuture<Number> result = calculateAsync(request, (iteration, partial, residual) ->
+                                        outbox.send(Frame.progress(requestId, iteration, partial, residual)));
+                                computation = result;
+                                response = result.thenAccept(value -> outbox.send(Frame.numberResult(requestId, value)));
+                                break;
+                            }
+                            case Frame.BATCH_REQUEST:
+                                computation = calculateBatchAsync(request,
+                                        (offset, values) -> outbox.send(Frame.batchResult(requestId, offset, values)));
+                                response = computation;
+                                break;
+                            default:
+                                throw new IOException("Unexpected frame from client: " + request);
+                        }
+                        inFlight.put(requestId, computation);
+                        CompletableFuture<?> tracked = computation;
+                        response.whenComplete((v, e) -> {
+                            inFlight.remove(requestId, tracked);
+                            if (e != null) {
+                                outbox.send(Frame.failure(requestId, e));
+                            }
+                        });
                     } catch (EOFException e) {
                         break;
                     }
@@ -74,24 +459,127 @@ public class ServerManager {
                 if (!Thread.currentThread().isInterrupted()) {
                     System.err.println("Client handling error: " + e.getMessage());
                 }
+            } finally {
+                blockingConnections.decrementAndGet();
+                for (CompletableFuture<?> computation : inFlight.values()) {
+                    computation.cancel(true);
+                }
             }
         });
     }
 
-    public void shutdown() {
-        for (ServerSocket serverSocket : serverSockets) {
+    /*
+     * Відповіді одного з'єднання в порядку надходження. Обчислення на таймерах завершуються на спільних потоках
+     * simulated-delay, тож блокуючий запис у сокет повільного клієнта робить потік serverExecutor, а не вони.
+     */
+    private final class Outbox {
+        private final DataOutputStream out;
+        private final Queue<Frame> frames = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Outbox(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void send(Frame frame) {
+            frames.add(frame);
+            drain();
+        }
+
+        private void drain() {
+            if (!draining.compareAndSet(false, true)) return;
             try {
-                if (serverSocket != null && !serverSocket.isClosed()) {
-                    serverSocket.close();
-                }
+                serverExecutor.execute(() -> {
+                    Frame frame;
+                    while ((frame = frames.poll()) != null) {
+                        sendResponse(out, frame);
+                    }
+                    draining.set(false);
+                    // Кадр міг з'явитися між останнім poll і скиданням прапорця
+                    if (!frames.isEmpty()) {
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Сервер зупиняється, з'єднання закриється разом з ним
+                draining.set(false);
+            }
+        }
+    }
+
+    private void sendResponse(DataOutputStream out, Frame response) {
+        synchronized (out) {
+            try {
+                FrameCodec.write(out, response);
+                out.flush();
             } catch (IOException e) {
-                System.err.println("Error closing server socket: " + e.getMessage());
+                System.err.println("Failed to send response: " + e.getMessage());
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (nioServer != null) {
+            nioServer.shutdown();
+        }
+        try {
+            if (serverSocket != null && !serverSocket.isClosed()) {
+                serverSocket.close();
             }
+        } catch (IOException e) {
+            System.err.println("Error closing server socket: " + e.getMessage());
         }
         serverExecutor.shutdownNow();
+        if (computeExecutor != serverExecutor) {
+            computeExecutor.shutdownNow();
+        }
+    }
+
+    public int getOpenConnections() {
+        return nioServer != null ? nioServer.getOpenConnections() : blockingConnections.get();
+    }
+
+    public int getActiveComputations() {
+        return activeComputations.get();
+    }
+
+    public int getScheduledComputations() {
+        return scheduledComputations.get();
+    }
+
+    public long getCancelledComputations() {
+        return cancelledComputations.sum();
+    }
+
+    public long getReclaimedComputeMillis() {
+        return reclaimedComputeMillis.sum();
+    }
+
+    public long getBusyRejections() {
+        return busyRejections.sum();
+    }
+
+    public int getAdmittedComputations() {
+        return admittedComputations.get();
+    }
+
+    public ComputeMode getComputeMode() {
+        return computeMode;
+    }
+
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public TransportMode getTransportMode() {
+        return transportMode;
+    }
+
+    public static int getBatchChunkSize() {
+        return BATCH_CHUNK_SIZE;
     }
 
-    public static int getPortStart() {
-        return PORT_START;
+    public static int getPort() {
+        return PORT;
     }
 }
\ No newline at end of file
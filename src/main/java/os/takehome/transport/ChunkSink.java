@@ -0,0 +1,6 @@
+package os.takehome.transport;
+
+@FunctionalInterface
+public interface ChunkSink {
+    void accept(int offset, double[] values);
+}
@@ -0,0 +1,248 @@
+package os.takehome.transport;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+public class ClientConnection implements Closeable {
+    private static final AtomicLong REQUEST_IDS = new AtomicLong();
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final Map<Long, PendingResponse> pending;
+    private final Thread reader;
+    private volatile boolean closed;
+
+    public ClientConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        this.socket.setTcpNoDelay(true);
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.pending = new ConcurrentHashMap<>();
+        this.reader = new Thread(this::readLoop, "connection-reader-" + socket.getPort());
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    // Запити не чекають один на одного: відповідь зіставляється із запитом за його id
+    public CompletableFuture<Double> call(int group, int component, char symbol, int input) {
+        return call(group, component, symbol, input, Frame.NO_FLAGS, Frame::getValue, null, Double.NaN);
+    }
+
+    // Точний результат: Long/BigInteger для цілих значень, Double для решти
+    public CompletableFuture<Number> callExact(int group, int component, char symbol, int input) {
+        return call(group, component, symbol, input, Frame.FLAG_EXACT, Frame::getNumber, null, Double.NaN);
+    }
+
+    /*
+     * Те саме з проміжними значеннями: progress отримує кожну ітерацію. Щойно похибка часткового значення
+     * не перевищує tolerance, воно стає результатом, а сервер отримує CANCEL і не витрачає час на решту ітерацій.
+     * NaN як tolerance вимикає дострокове прийняття.
+     */
+    public CompletableFuture<Number> callExact(int group, int component, char symbol, int input,
+                                               ProgressSink progress, double tolerance) {
+        return call(group, component, symbol, input, (byte) (Frame.FLAG_EXACT | Frame.FLAG_PROGRESS), Frame::getNumber,
+                progress, tolerance);
+    }
+
+    private <T> CompletableFuture<T> call(int group, int component, char symbol, int input, byte flags,
+                                          Function<Frame, T> value, ProgressSink progress, double tolerance) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        send(requestId -> Frame.request(requestId, group, component, symbol, input, flags), result, new PendingResponse() {
+            @Override
+            public boolean onFrame(Frame frame) {
+                if (frame.getType() == Frame.PROGRESS) {
+                    if (progress != null) {
+                        progress.accept(frame.getIteration(), frame.getValue(), frame.getResidual());
+                    }
+                    if (!(frame.getResidual() <= tolerance)) return false;
+                    sendCancel(frame.getRequestId());
+                    result.complete(value.apply(frame));
+                    return true;
+                }
+                if (frame.getType() == Frame.RESULT || frame.getType() == Frame.BIG_RESULT) {
+                    result.complete(value.apply(frame));
+                } else {
+                    result.completeExceptionally(new IOException("Unexpected frame from server: " + frame));
+                }
+                return true;
+            }
+
+            @Override
+            public void fail(Throwable error) {
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+
+    public CompletableFuture<Void> ping() {
+        return request(Frame::ping).thenApply(frame -> null);
+    }
+
+    public CompletableFuture<Frame> request(LongFunction<Frame> frameFactory) {
+        CompletableFuture<Frame> response = new CompletableFuture<>();
+        send(frameFactory, response, new PendingResponse() {
+            @Override
+            public boolean onFrame(Frame frame) {
+                response.complete(frame);
+                return true;
+            }
+
+            @Override
+            public void fail(Throwable error) {
+                response.completeExceptionally(error);
+            }
+        });
+        return response;
+    }
+
+    // Результати пакета надходять частинами; sink отримує кожну частину одразу після прибуття
+    public CompletableFuture<double[]> callBatch(int group, int component, char symbol, int[] inputs, ChunkSink sink) {
+        CompletableFuture<double[]> result = new CompletableFuture<>();
+        if (inputs.length == 0) {
+            result.complete(new double[0]);
+            return result;
+        }
+        double[] values = new double[inputs.length];
+        send(requestId -> Frame.batchRequest(requestId, group, component, symbol, inputs, Frame.NO_FLAGS), result, new PendingResponse() {
+            private int received;
+
+            @Override
+            public boolean onFrame(Frame frame) {
+                if (frame.getType() != Frame.BATCH_RESULT) {
+                    fail(new IOException("Unexpected frame from server: " + frame));
+                    return true;
+                }
+                double[] chunk = frame.getValues();
+                System.arraycopy(chunk, 0, values, frame.getOffset(), chunk.length);
+                if (sink != null) {
+                    sink.accept(frame.getOffset(), chunk);
+                }
+                received += chunk.length;
+                if (received < values.length) return false;
+                result.complete(values);
+                return true;
+            }
+
+            @Override
+            public void fail(Throwable error) {
+                result.completeExceptionally(error);
+            }
+        });
+        return result;
+    }
+
+    private void send(LongFunction<Frame> frameFactory, CompletableFuture<?> result, PendingResponse response) {
+        long requestId = REQUEST_IDS.incrementAndGet();
+        pending.put(requestId, response);
+        // Якщо результат завершили ззовні (тайм-аут, скасування), просимо сервер зупинити обчислення
+        result.whenComplete((v, e) -> {
+            if (e != null && pending.remove(requestId) != null) {
+                sendCancel(requestId);
+            }
+        });
+        if (closed) {
+            pending.remove(requestId);
+            response.fail(new IOException("Connection closed"));
+            return;
+        }
+        try {
+            synchronized (out) {
+                FrameCodec.write(out, frameFactory.apply(requestId));
+                out.flush();
+            }
+        } catch (IOException e) {
+            pending.remove(requestId);
+            response.fail(e);
+            close();
+        }
+    }
+
+    private void sendCancel(long requestId) {
+        if (closed) return;
+        try {
+            synchronized (out) {
+                FrameCodec.write(out, Frame.cancel(requestId));
+                out.flush();
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    // Помилка під час читання кадру означає, що потік розсинхронізовано: з'єднання закривається разом з усіма
+    // запитами. Помилка обробки вже прочитаного кадру (хибний зсув пакета, виняток у колбеку) стосується лише його запиту
+    private void readLoop() {
+        try {
+            while (!closed) {
+                Frame frame = FrameCodec.read(in);
+                PendingResponse response = pending.get(frame.getRequestId());
+                if (response == null) continue;
+                try {
+                    if (frame.getType() == Frame.ERROR) {
+                        pending.remove(frame.getRequestId());
+                        response.fail(new IOException("Remote error: " + frame.getMessage()));
+                    } else if (frame.getType() == Frame.BUSY) {
+                        pending.remove(frame.getRequestId());
+                        response.fail(new WorkerBusyException(frame.getRetryAfterMillis()));
+                    } else if (response.onFrame(frame)) {
+                        pending.remove(frame.getRequestId());
+                    }
+                } catch (RuntimeException e) {
+                    // Завершення результату прибирає запит з pending і надсилає серверу CANCEL
+                    response.fail(e);
+                    pending.remove(frame.getRequestId());
+                }
+            }
+        } catch (EOFException e) {
+            // Сервер закрив з'єднання
+        } catch (IOException | RuntimeException e) {
+            if (!closed) {
+                System.err.println("Connection to port " + socket.getPort() + " lost: " + e);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    public InetSocketAddress getRemoteAddress() {
+        return (InetSocketAddress) socket.getRemoteSocketAddress();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public boolean isOpen() {
+        return !closed && !socket.isClosed();
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing socket: " + e.getMessage());
+        }
+        IOException closedError = new IOException("Connection closed");
+        for (Long requestId : new ArrayList<>(pending.keySet())) {
+            PendingResponse response = pending.remove(requestId);
+            if (response != null) {
+                response.fail(closedError);
+            }
+        }
+    }
+
+    private interface PendingResponse {
+        // Повертає true, коли відповідь на запит отримано повністю
+        boolean onFrame(Frame frame);
+        void fail(Throwable error);
+    }
+}
@@ -0,0 +1,226 @@
+package os.takehome.transport;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class ConnectionPool implements Closeable {
+    private static final int MAX_RETRIES = 3;
+    private static final int RETRY_DELAY_MS = 1000;
+    private static final long PING_TIMEOUT_MS = 2000;
+
+    private final int connectionsPerEndpoint;
+    private final Map<Endpoint, List<ClientConnection>> connections;
+    private final Set<Endpoint> replenishing;
+    private final ScheduledExecutorService maintenance;
+    // Підключення блокуються (з повторами до кількох секунд), тож кожне виконується в окремому потоці
+    private final ExecutorService connector;
+    private volatile boolean closed;
+
+    public ConnectionPool() {
+        this(Integer.getInteger("taskmanager.pool.connections", 2),
+                Long.getLong("taskmanager.pool.healthCheckMs", 5000L));
+    }
+
+    public ConnectionPool(int connectionsPerEndpoint, long healthCheckIntervalMs) {
+        this.connectionsPerEndpoint = Math.max(1, connectionsPerEndpoint);
+        this.connections = new ConcurrentHashMap<>();
+        this.replenishing = ConcurrentHashMap.newKeySet();
+        this.maintenance = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::checkHealth, healthCheckIntervalMs, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+        this.connector = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-connect");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // З'єднання мультиплексовані, тому оренда не є ексклюзивною: обираємо найменш завантажене
+    public ClientConnection lease(Endpoint endpoint) throws IOException {
+        if (closed) throw new IOException("Connection pool is closed");
+        List<ClientConnection> pool = connections.computeIfAbsent(endpoint, e -> new CopyOnWriteArrayList<>());
+        ClientConnection leased = leastLoaded(pool);
+        if (leased == null) {
+            synchronized (pool) {
+                leased = leastLoaded(pool);
+                if (leased == null) {
+                    leased = connect(endpoint);
+                    pool.add(leased);
+                }
+            }
+        }
+        if (pool.size() < connectionsPerEndpoint) {
+            replenish(endpoint);
+        }
+        return leased;
+    }
+
+    public void warm(Endpoint endpoint) throws IOException {
+        lease(endpoint);
+    }
+
+    // Відкриває всі відсутні з'єднання до вузла паралельно. Завершується успішно, якщо в пулі є хоч одне з'єднання
+    public CompletableFuture<Void> warmAsync(Endpoint endpoint) {
+        if (closed) return CompletableFuture.failedFuture(new IOException("Connection pool is closed"));
+        List<ClientConnection> pool = connections.computeIfAbsent(endpoint, e -> new CopyOnWriteArrayList<>());
+        prune(pool);
+        List<CompletableFuture<Void>> connects = new ArrayList<>();
+        for (int i = pool.size(); i < connectionsPerEndpoint; i++) {
+            connects.add(CompletableFuture.runAsync(() -> {
+                ClientConnection connection;
+                try {
+                    connection = connect(endpoint);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+                if (!addIfRoom(pool, connection)) {
+                    connection.close();
+                }
+            }, connector));
+        }
+        return CompletableFuture.allOf(connects.toArray(new CompletableFuture[0])).handle((v, e) -> {
+            if (e != null && pool.isEmpty()) {
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+            return null;
+        });
+    }
+
+    public void evict(Endpoint endpoint) {
+        List<ClientConnection> pool = connections.remove(endpoint);
+        if (pool != null) {
+            for (ClientConnection connection : pool) {
+                connection.close();
+            }
+        }
+    }
+
+    public int getOpenConnections() {
+        int open = 0;
+        for (List<ClientConnection> pool : connections.values()) {
+            open += pool.size();
+        }
+        return open;
+    }
+
+    private void prune(List<ClientConnection> pool) {
+        for (ClientConnection connection : pool) {
+            if (!connection.isOpen()) {
+                pool.remove(connection);
+            }
+        }
+    }
+
+    // Перевірка розміру і додавання під одним замком: warmAsync і replenish підключаються одночасно
+    private boolean addIfRoom(List<ClientConnection> pool, ClientConnection connection) {
+        synchronized (pool) {
+            if (closed || pool.size() >= connectionsPerEndpoint) return false;
+            pool.add(connection);
+            return true;
+        }
+    }
+
+    private ClientConnection leastLoaded(List<ClientConnection> pool) {
+        ClientConnection best = null;
+        for (ClientConnection connection : pool) {
+            if (!connection.isOpen()) {
+                pool.remove(connection);
+                continue;
+            }
+            if (best == null || connection.getPendingCount() < best.getPendingCount()) {
+                best = connection;
+            }
+        }
+        return best;
+    }
+
+    private ClientConnection connect(Endpoint endpoint) throws IOException {
+        int retryCount = 0;
+        while (true) {
+            try {
+                return new ClientConnection(new Socket(endpoint.getHost(), endpoint.getPort()));
+            } catch (ConnectException e) {
+                retryCount++;
+                if (retryCount >= MAX_RETRIES) {
+                    throw new IOException("Failed to connect to " + endpoint + " after " + MAX_RETRIES + " attempts");
+                }
+                System.out.println("Connection attempt " + retryCount + " to " + endpoint + " failed, retrying in " + RETRY_DELAY_MS + "ms...");
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Connection interrupted");
+                }
+            }
+        }
+    }
+
+    // Добудовуємо пул до потрібного розміру у фоні, не блокуючи потік команд
+    private void replenish(Endpoint endpoint) {
+        if (closed || !replenishing.add(endpoint)) return;
+        try {
+            maintenance.execute(() -> {
+                try {
+                    List<ClientConnection> pool = connections.computeIfAbsent(endpoint, e -> new CopyOnWriteArrayList<>());
+                    while (!closed && pool.size() < connectionsPerEndpoint) {
+                        ClientConnection connection = connect(endpoint);
+                        if (!addIfRoom(pool, connection)) {
+                            connection.close();
+                            break;
+                        }
+                    }
+                } catch (IOException e) {
+                    System.err.println("Failed to replenish connections to " + endpoint + ": " + e.getMessage());
+                } finally {
+                    replenishing.remove(endpoint);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            replenishing.remove(endpoint);
+        }
+    }
+
+    private void checkHealth() {
+        for (Map.Entry<Endpoint, List<ClientConnection>> entry : connections.entrySet()) {
+            Endpoint endpoint = entry.getKey();
+            List<ClientConnection> pool = entry.getValue();
+            for (ClientConnection connection : pool) {
+                if (!connection.isOpen()) {
+                    pool.remove(connection);
+                    continue;
+                }
+                if (connection.getPendingCount() > 0) continue;
+                connection.ping()
+                        .orTimeout(PING_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                        .whenComplete((v, e) -> {
+                            if (e != null) {
+                                connection.close();
+                                pool.remove(connection);
+                                replenish(endpoint);
+                            }
+                        });
+            }
+            if (pool.size() < connectionsPerEndpoint) {
+                replenish(endpoint);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+        connector.shutdownNow();
+        for (List<ClientConnection> pool : connections.values()) {
+            for (ClientConnection connection : pool) {
+                connection.close();
+            }
+        }
+        connections.clear();
+    }
+}
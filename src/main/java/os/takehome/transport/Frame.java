@@ -0,0 +1,162 @@
+package os.takehome.transport;
+
+import java.math.*;
+import java.util.concurrent.*;
+
+public final class Frame {
+    public static final byte REQUEST = 1;
+    public static final byte RESULT = 2;
+    public static final byte ERROR = 3;
+    public static final byte PING = 4;
+    public static final byte PONG = 5;
+    public static final byte BATCH_REQUEST = 6;
+    public static final byte BATCH_RESULT = 7;
+    public static final byte CANCEL = 8;
+    public static final byte BUSY = 9;
+    public static final byte BIG_RESULT = 10;
+    public static final byte PROGRESS = 11;
+
+    public static final byte NO_FLAGS = 0;
+    // Клієнт просить точний результат (Long/BigInteger) замість double
+    public static final byte FLAG_EXACT = 1;
+    // Клієнт хоче отримувати PROGRESS після кожної ітерації обчислення
+    public static final byte FLAG_PROGRESS = 2;
+
+    private final byte type;
+    private final byte flags;
+    private final long requestId;
+    private int group;
+    private int component;
+    private char symbol;
+    private int input;
+    private double value;
+    private BigInteger bigValue;
+    private String message;
+    private int[] inputs;
+    private int offset;
+    private int retryAfterMillis;
+    private int iteration;
+    private double residual;
+    private double[] values;
+
+    private Frame(byte type, byte flags, long requestId) {
+        this.type = type;
+        this.flags = flags;
+        this.requestId = requestId;
+    }
+
+    // Запит адресований компоненту (група, індекс); усі компоненти вузла обслуговує один порт
+    public static Frame request(long requestId, int group, int component, char symbol, int input, byte flags) {
+        Frame frame = new Frame(REQUEST, flags, requestId);
+        frame.group = group;
+        frame.component = component;
+        frame.symbol = symbol;
+        frame.input = input;
+        return frame;
+    }
+
+    public static Frame result(long requestId, double value) {
+        Frame frame = new Frame(RESULT, NO_FLAGS, requestId);
+        frame.value = value;
+        return frame;
+    }
+
+    public static Frame bigResult(long requestId, BigInteger value) {
+        Frame frame = new Frame(BIG_RESULT, NO_FLAGS, requestId);
+        frame.bigValue = value;
+        return frame;
+    }
+
+    // Цілі результати передаються точно, решта — як double
+    public static Frame numberResult(long requestId, Number value) {
+        if (value instanceof BigInteger) return bigResult(requestId, (BigInteger) value);
+        if (value instanceof Long || value instanceof Integer) return bigResult(requestId, BigInteger.valueOf(value.longValue()));
+        return result(requestId, value.doubleValue());
+    }
+
+    // Проміжне значення обчислення; остаточна відповідь усе одно надходить як RESULT
+    public static Frame progress(long requestId, int iteration, double partial, double residual) {
+        Frame frame = new Frame(PROGRESS, NO_FLAGS, requestId);
+        frame.iteration = iteration;
+        frame.value = partial;
+        frame.residual = residual;
+        return frame;
+    }
+
+    public static Frame error(long requestId, String message) {
+        Frame frame = new Frame(ERROR, NO_FLAGS, requestId);
+        frame.message = message == null ? "" : message;
+        return frame;
+    }
+
+    public static Frame ping(long requestId) {
+        return new Frame(PING, NO_FLAGS, requestId);
+    }
+
+    public static Frame pong(long requestId) {
+        return new Frame(PONG, NO_FLAGS, requestId);
+    }
+
+    // Скасування запиту з тим самим id; відповідь не надсилається
+    public static Frame cancel(long requestId) {
+        return new Frame(CANCEL, NO_FLAGS, requestId);
+    }
+
+    // Запит не прийнято через перевантаження вузла
+    public static Frame busy(long requestId, int retryAfterMillis) {
+        Frame frame = new Frame(BUSY, NO_FLAGS, requestId);
+        frame.retryAfterMillis = retryAfterMillis;
+        return frame;
+    }
+
+    // Відповідь на невдалий запит: BUSY для перевантаження, ERROR для решти помилок
+    public static Frame failure(long requestId, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        if (cause instanceof WorkerBusyException) {
+            return busy(requestId, ((WorkerBusyException) cause).getRetryAfterMillis());
+        }
+        return error(requestId, cause.getMessage());
+    }
+
+    public static Frame batchRequest(long requestId, int group, int component, char symbol, int[] inputs, byte flags) {
+        Frame frame = new Frame(BATCH_REQUEST, flags, requestId);
+        frame.group = group;
+        frame.component = component;
+        frame.symbol = symbol;
+        frame.inputs = inputs;
+        return frame;
+    }
+
+    // Частина результатів пакета, починаючи з позиції offset у вхідному масиві
+    public static Frame batchResult(long requestId, int offset, double[] values) {
+        Frame frame = new Frame(BATCH_RESULT, NO_FLAGS, requestId);
+        frame.offset = offset;
+        frame.values = values;
+        return frame;
+    }
+
+    public byte getType() { return type; }
+    public byte getFlags() { return flags; }
+    public boolean hasFlag(byte flag) { return (flags & flag) != 0; }
+    public long getRequestId() { return requestId; }
+    public int getGroup() { return group; }
+    public int getComponent() { return component; }
+    public char getSymbol() { return symbol; }
+    public int getInput() { return input; }
+    public double getValue() { return value; }
+    public BigInteger getBigValue() { return bigValue; }
+    public Number getNumber() { return type == BIG_RESULT ? bigValue : (Number) value; }
+    public String getMessage() { return message; }
+    public int[] getInputs() { return inputs; }
+    public int getOffset() { return offset; }
+    public double[] getValues() { return values; }
+    public int getRetryAfterMillis() { return retryAfterMillis; }
+    public int getIteration() { return iteration; }
+    public double getResidual() { return residual; }
+
+    @Override
+    public String toString() {
+        return "Frame{type=" + type + ", id=" + requestId + ", flags=" + flags + "}";
+    }
+}
@@ -0,0 +1,207 @@
+package os.takehome.transport;
+
+import java.io.*;
+import java.math.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/*
+ * Формат кадру: int довжина (байтів після цього поля), byte тип, byte прапорці, long id запиту, тіло.
+ * REQUEST: int група, int компонент, char символ, int вхідне значення; RESULT: double;
+ * BIG_RESULT: int довжина + BigInteger у доповняльному коді (big-endian);
+ * ERROR: short довжина + UTF-8 повідомлення; PING/PONG/CANCEL: без тіла;
+ * BATCH_REQUEST: int група, int компонент, char символ, int кількість, int[] входи;
+ * BATCH_RESULT: int зсув, int кількість, double[] результати; BUSY: int затримка повтору (мс);
+ * PROGRESS: int ітерація, double часткове значення, double похибка.
+ */
+public final class FrameCodec {
+    public static final int LENGTH_FIELD = Integer.BYTES;
+    public static final int HEADER_SIZE = 2 + Long.BYTES;
+    public static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    private FrameCodec() {}
+
+    public static ByteBuffer encode(Frame frame) {
+        // Повідомлення ERROR кодується в UTF-8 один раз: його довжина входить і в розмір кадру
+        byte[] message = frame.getType() == Frame.ERROR ? messageBytes(frame) : null;
+        int length = HEADER_SIZE + bodySize(frame, message);
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_FIELD + length);
+        buffer.putInt(length);
+        buffer.put(frame.getType()).put(frame.getFlags()).putLong(frame.getRequestId());
+        switch (frame.getType()) {
+            case Frame.REQUEST:
+                buffer.putInt(frame.getGroup()).putInt(frame.getComponent());
+                buffer.putChar(frame.getSymbol()).putInt(frame.getInput());
+                break;
+            case Frame.RESULT:
+                buffer.putDouble(frame.getValue());
+                break;
+            case Frame.BIG_RESULT:
+                byte[] magnitude = frame.getBigValue().toByteArray();
+                buffer.putInt(magnitude.length).put(magnitude);
+                break;
+            case Frame.ERROR:
+                buffer.putShort((short) message.length).put(message);
+                break;
+            case Frame.PING:
+            case Frame.PONG:
+            case Frame.CANCEL:
+                break;
+            case Frame.BATCH_REQUEST:
+                buffer.putInt(frame.getGroup()).putInt(frame.getComponent());
+                buffer.putChar(frame.getSymbol()).putInt(frame.getInputs().length);
+                buffer.asIntBuffer().put(frame.getInputs());
+                buffer.position(buffer.position() + frame.getInputs().length * Integer.BYTES);
+                break;
+            case Frame.BUSY:
+                buffer.putInt(frame.getRetryAfterMillis());
+                break;
+            case Frame.PROGRESS:
+                buffer.putInt(frame.getIteration()).putDouble(frame.getValue()).putDouble(frame.getResidual());
+                break;
+            case Frame.BATCH_RESULT:
+                buffer.putInt(frame.getOffset()).putInt(frame.getValues().length);
+                buffer.asDoubleBuffer().put(frame.getValues());
+                buffer.position(buffer.position() + frame.getValues().length * Double.BYTES);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown frame type: " + frame.getType());
+        }
+        return buffer.flip();
+    }
+
+    // Повертає null, якщо кадр ще не надійшов повністю; позиція буфера при цьому не змінюється
+    public static Frame decode(ByteBuffer in) throws IOException {
+        if (in.remaining() < LENGTH_FIELD) return null;
+        int length = in.getInt(in.position());
+        if (length < HEADER_SIZE || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        if (in.remaining() < LENGTH_FIELD + length) return null;
+
+        in.position(in.position() + LENGTH_FIELD);
+        ByteBuffer body = in.slice().limit(length);
+        in.position(in.position() + length);
+        return decodeBody(body);
+    }
+
+    public static void write(DataOutputStream out, Frame frame) throws IOException {
+        ByteBuffer buffer = encode(frame);
+        out.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
+    }
+
+    public static Frame read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < HEADER_SIZE || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        byte[] body = new byte[length];
+        in.readFully(body);
+        return decodeBody(ByteBuffer.wrap(body));
+    }
+
+    private static Frame decodeBody(ByteBuffer body) throws IOException {
+        try {
+            byte type = body.get();
+            byte flags = body.get();
+            long requestId = body.getLong();
+            switch (type) {
+                case Frame.REQUEST: {
+                    int group = body.getInt();
+                    int component = body.getInt();
+                    char symbol = body.getChar();
+                    return Frame.request(requestId, group, component, symbol, body.getInt(), flags);
+                }
+                case Frame.RESULT:
+                    return Frame.result(requestId, body.getDouble());
+                case Frame.BIG_RESULT: {
+                    byte[] magnitude = new byte[checkedCount(body, 1)];
+                    body.get(magnitude);
+                    return Frame.bigResult(requestId, new BigInteger(magnitude));
+                }
+                case Frame.ERROR:
+                    byte[] message = new byte[body.getShort() & 0xFFFF];
+                    body.get(message);
+                    return Frame.error(requestId, new String(message, StandardCharsets.UTF_8));
+                case Frame.PING:
+                    return Frame.ping(requestId);
+                case Frame.PONG:
+                    return Frame.pong(requestId);
+                case Frame.CANCEL:
+                    return Frame.cancel(requestId);
+                case Frame.BATCH_REQUEST: {
+                    int group = body.getInt();
+                    int component = body.getInt();
+                    char symbol = body.getChar();
+                    int[] inputs = new int[checkedCount(body, Integer.BYTES)];
+                    body.asIntBuffer().get(inputs);
+                    return Frame.batchRequest(requestId, group, component, symbol, inputs, flags);
+                }
+                case Frame.BUSY:
+                    return Frame.busy(requestId, body.getInt());
+                case Frame.PROGRESS: {
+                    int iteration = body.getInt();
+                    double partial = body.getDouble();
+                    return Frame.progress(requestId, iteration, partial, body.getDouble());
+                }
+                case Frame.BATCH_RESULT: {
+                    int offset = body.getInt();
+                    double[] values = new double[checkedCount(body, Double.BYTES)];
+                    body.asDoubleBuffer().get(values);
+                    return Frame.batchResult(requestId, offset, values);
+                }
+                default:
+                    throw new IOException("Unknown frame type: " + type);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated frame");
+        }
+    }
+
+    private static int checkedCount(ByteBuffer body, int elementSize) throws IOException {
+        int count = body.getInt();
+        if (count < 0 || (long) count * elementSize > body.remaining()) {
+            throw new IOException("Invalid element count: " + count);
+        }
+        return count;
+    }
+
+    private static int bodySize(Frame frame, byte[] message) {
+        switch (frame.getType()) {
+            case Frame.REQUEST:
+                return 2 * Integer.BYTES + Character.BYTES + Integer.BYTES;
+            case Frame.RESULT:
+                return Double.BYTES;
+            case Frame.BIG_RESULT:
+                return Integer.BYTES + (frame.getBigValue().bitLength() / 8 + 1);
+            case Frame.ERROR:
+                return Short.BYTES + message.length;
+            case Frame.PING:
+            case Frame.PONG:
+            case Frame.CANCEL:
+                return 0;
+            case Frame.BATCH_REQUEST:
+                return 2 * Integer.BYTES + Character.BYTES + Integer.BYTES + frame.getInputs().length * Integer.BYTES;
+            case Frame.BUSY:
+                return Integer.BYTES;
+            case Frame.PROGRESS:
+                return Integer.BYTES + 2 * Double.BYTES;
+            case Frame.BATCH_RESULT:
+                return 2 * Integer.BYTES + frame.getValues().length * Double.BYTES;
+            default:
+                throw new IllegalArgumentException("Unknown frame type: " + frame.getType());
+        }
+    }
+
+    private static byte[] messageBytes(Frame frame) {
+        byte[] message = frame.getMessage().getBytes(StandardCharsets.UTF_8);
+        if (message.length <= 0xFFFF) return message;
+        // Обрізаємо по межі символу: байти продовження UTF-8 мають вигляд 10xxxxxx
+        int end = 0xFFFF;
+        while ((message[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(message, end);
+    }
+}
@@ -0,0 +1,175 @@
+package os.takehome.transport;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class NioConnection implements NioEventLoop.Handler {
+    private final SocketChannel channel;
+    private final NioEventLoop loop;
+    private final RequestHandler handler;
+    private final Runnable onClose;
+    private ByteBuffer readBuffer;
+    private final Queue<ByteBuffer> writeQueue;
+    private final AtomicBoolean flushScheduled;
+    private final Map<Long, CompletableFuture<?>> inFlight;
+    private SelectionKey key;
+    private volatile boolean closed;
+
+    NioConnection(SocketChannel channel, NioEventLoop loop, RequestHandler handler, Runnable onClose) {
+        this.channel = channel;
+        this.onClose = onClose;
+        this.loop = loop;
+        this.handler = handler;
+        this.readBuffer = ByteBuffer.allocate(8192);
+        this.writeQueue = new ConcurrentLinkedQueue<>();
+        this.flushScheduled = new AtomicBoolean();
+        this.inFlight = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void registered(SelectionKey key) {
+        this.key = key;
+    }
+
+    @Override
+    public void onReady(SelectionKey key) throws IOException {
+        if (key.isReadable()) {
+            read();
+        }
+        if (key.isValid() && key.isWritable()) {
+            flush();
+        }
+    }
+
+    private void read() throws IOException {
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            close();
+            return;
+        }
+        readBuffer.flip();
+        Frame frame;
+        while ((frame = FrameCodec.decode(readBuffer)) != null) {
+            onFrame(frame);
+        }
+        readBuffer.compact();
+        if (!readBuffer.hasRemaining()) {
+            growReadBuffer();
+        }
+    }
+
+    // Кадр більший за буфер: збільшуємо буфер до розміру кадру
+    private void growReadBuffer() {
+        ByteBuffer larger = ByteBuffer.allocate(Math.min(readBuffer.capacity() * 2,
+                FrameCodec.LENGTH_FIELD + FrameCodec.MAX_FRAME_SIZE));
+        readBuffer.flip();
+        larger.put(readBuffer);
+        readBuffer = larger;
+    }
+
+    private void onFrame(Frame frame) throws IOException {
+        long requestId = frame.getRequestId();
+        CompletableFuture<?> computation;
+        CompletableFuture<?> response;
+        try {
+            switch (frame.getType()) {
+                case Frame.PING:
+                    send(Frame.pong(requestId));
+                    return;
+                case Frame.CANCEL:
+                    cancel(requestId);
+                    return;
+                case Frame.REQUEST: {
+                    CompletableFuture<Number> result = handler.onRequest(frame, (iteration, partial, residual) ->
+                            send(Frame.progress(requestId, iteration, partial, residual)));
+                    computation = result;
+                    response = result.thenAccept(value -> send(Frame.numberResult(requestId, value)));
+                    break;
+                }
+                case Frame.BATCH_REQUEST:
+                    computation = handler.onBatchRequest(frame,
+                            (offset, values) -> send(Frame.batchResult(requestId, offset, values)));
+                    response = computation;
+                    break;
+                default:
+                    throw new IOException("Unexpected frame from client: " + frame);
+            }
+        } catch (RuntimeException e) {
+            send(Frame.error(requestId, e.getMessage()));
+            return;
+        }
+        inFlight.put(requestId, computation);
+        response.whenComplete((v, e) -> {
+            inFlight.remove(requestId, computation);
+            if (e != null) {
+                send(Frame.failure(requestId, e));
+            }
+        });
+    }
+
+    private void cancel(long requestId) {
+        CompletableFuture<?> computation = inFlight.remove(requestId);
+        if (computation != null) {
+            computation.cancel(true);
+        }
+    }
+
+    public void send(Frame frame) {
+        send(FrameCodec.encode(frame));
+    }
+
+    public void send(ByteBuffer data) {
+        if (closed) return;
+        writeQueue.offer(data);
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::flushFromLoop);
+        }
+    }
+
+    private void flushFromLoop() {
+        flushScheduled.set(false);
+        try {
+            flush();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (key == null || !key.isValid()) return;
+        ByteBuffer data;
+        while ((data = writeQueue.peek()) != null) {
+            channel.write(data);
+            if (data.hasRemaining()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+            writeQueue.poll();
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        onClose.run();
+        if (key != null) {
+            key.cancel();
+        }
+        writeQueue.clear();
+        // Клієнт більше не чекає на відповіді: звільняємо обчислювальні потоки
+        for (Long requestId : new ArrayList<>(inFlight.keySet())) {
+            cancel(requestId);
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package os.takehome.transport;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class NioEventLoop implements Runnable {
+    interface Handler {
+        default void registered(SelectionKey key) {}
+        void onReady(SelectionKey key) throws IOException;
+        void close();
+    }
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks;
+    private volatile boolean running;
+
+    public NioEventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    // Усі операції з ключами селектора виконуються лише в потоці циклу
+    public void execute(Runnable task) {
+        tasks.offer(task);
+        selector.wakeup();
+    }
+
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    void register(SelectableChannel channel, int ops, Handler handler) {
+        execute(() -> {
+            try {
+                handler.registered(channel.register(selector, ops, handler));
+            } catch (ClosedChannelException e) {
+                handler.close();
+            }
+        });
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+                runTasks();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Handler handler = (Handler) key.attachment();
+                    if (!key.isValid()) {
+                        handler.close();
+                        continue;
+                    }
+                    try {
+                        handler.onReady(key);
+                    } catch (IOException | RuntimeException e) {
+                        handler.close();
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (running) {
+                    System.err.println("Event loop " + thread.getName() + " error: " + e.getMessage());
+                }
+            }
+        }
+        closeAll();
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void closeAll() {
+        runTasks();
+        for (SelectionKey key : selector.keys()) {
+            ((Handler) key.attachment()).close();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Error closing selector: " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+}
@@ -0,0 +1,96 @@
+package os.takehome.transport;
+
+import java.io.*;
+import java.net.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+public class NioServer {
+    private final NioEventLoop[] loops;
+    private final RequestHandler handler;
+    private final List<ServerSocketChannel> serverChannels;
+    private final AtomicInteger nextLoop;
+    private final AtomicInteger openConnections;
+
+    public NioServer(int ioThreads, RequestHandler handler) throws IOException {
+        this.loops = new NioEventLoop[ioThreads];
+        this.handler = handler;
+        this.serverChannels = new ArrayList<>();
+        this.nextLoop = new AtomicInteger();
+        this.openConnections = new AtomicInteger();
+        for (int i = 0; i < ioThreads; i++) {
+            loops[i] = new NioEventLoop("nio-loop-" + i);
+            loops[i].start();
+        }
+    }
+
+    public void bind(int port) throws IOException {
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+        serverChannels.add(serverChannel);
+        loops[0].register(serverChannel, SelectionKey.OP_ACCEPT, new Acceptor(serverChannel));
+    }
+
+    private NioEventLoop nextLoop() {
+        return loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+    }
+
+    private class Acceptor implements NioEventLoop.Handler {
+        private final ServerSocketChannel serverChannel;
+
+        Acceptor(ServerSocketChannel serverChannel) {
+            this.serverChannel = serverChannel;
+        }
+
+        @Override
+        public void onReady(SelectionKey key) throws IOException {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                try {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                } catch (IOException e) {
+                    channel.close();
+                    continue;
+                }
+                NioEventLoop loop = nextLoop();
+                openConnections.incrementAndGet();
+                loop.register(channel, SelectionKey.OP_READ,
+                        new NioConnection(channel, loop, handler, openConnections::decrementAndGet));
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing server socket: " + e.getMessage());
+            }
+        }
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public void shutdown() {
+        for (ServerSocketChannel serverChannel : serverChannels) {
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing server socket: " + e.getMessage());
+            }
+        }
+        for (NioEventLoop loop : loops) {
+            loop.shutdown();
+        }
+    }
+}
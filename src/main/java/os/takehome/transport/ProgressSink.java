@@ -0,0 +1,6 @@
+package os.takehome.transport;
+
+@FunctionalInterface
+public interface ProgressSink {
+    void accept(int iteration, double partial, double residual);
+}
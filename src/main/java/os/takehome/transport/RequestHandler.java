@@ -0,0 +1,10 @@
+package os.takehome.transport;
+
+import java.util.concurrent.*;
+
+public interface RequestHandler {
+    // progress надсилає клієнту PROGRESS; використовується, лише якщо запит має FLAG_PROGRESS
+    CompletableFuture<Number> onRequest(Frame request, ProgressSink progress);
+
+    CompletableFuture<Void> onBatchRequest(Frame request, ChunkSink sink);
+}
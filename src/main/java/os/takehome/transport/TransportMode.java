@@ -0,0 +1,14 @@
+package os.takehome.transport;
+
+public enum TransportMode {
+    BLOCKING, NIO;
+
+    public static TransportMode fromSystemProperty() {
+        String mode = System.getProperty("taskmanager.transport", "nio");
+        try {
+            return valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown transport mode: " + mode);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package os.takehome.transport;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Вузол обчислень: адреса, місткість і поточне навантаження
+public final class Worker {
+    private final Endpoint endpoint;
+    private final int capacity;
+    private final AtomicInteger outstanding;
+    private final LongAdder completed;
+    private final LongAdder failed;
+    private final LongAdder busyResponses;
+    private volatile long busyUntilNanos;
+    private volatile boolean healthy;
+
+    public Worker(Endpoint endpoint, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Worker capacity must be positive: " + endpoint);
+        this.endpoint = endpoint;
+        this.capacity = capacity;
+        this.outstanding = new AtomicInteger();
+        this.completed = new LongAdder();
+        this.failed = new LongAdder();
+        this.busyResponses = new LongAdder();
+        this.healthy = true;
+    }
+
+    public Endpoint getEndpoint() { return endpoint; }
+    public int getCapacity() { return capacity; }
+    public int getOutstanding() { return outstanding.get(); }
+    public long getCompleted() { return completed.sum(); }
+    public long getFailed() { return failed.sum(); }
+    public long getBusyResponses() { return busyResponses.sum(); }
+    public boolean isHealthy() { return healthy; }
+
+    public boolean isBusy() {
+        return System.nanoTime() - busyUntilNanos < 0;
+    }
+
+    long getBusyUntilNanos() {
+        return busyUntilNanos;
+    }
+
+    // Навантаження з урахуванням ваги: вузол удвічі більшої місткості отримує вдвічі більше запитів
+    double load() {
+        return (outstanding.get() + 1) / (double) capacity;
+    }
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    void finished(Throwable error) {
+        outstanding.decrementAndGet();
+        if (error == null) {
+            completed.increment();
+        } else if (!(error instanceof WorkerBusyException)) {
+            failed.increment();
+        }
+    }
+
+    void markBusy(int retryAfterMillis) {
+        busyResponses.increment();
+        busyUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis);
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    @Override
+    public String toString() {
+        return endpoint + "*" + capacity;
+    }
+}
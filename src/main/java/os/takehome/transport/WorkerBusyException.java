@@ -0,0 +1,19 @@
+package os.takehome.transport;
+
+import java.io.*;
+
+// Вузол перевантажений і не прийняв запит; повторити варто не раніше ніж через retryAfterMillis
+public class WorkerBusyException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int retryAfterMillis;
+
+    public WorkerBusyException(int retryAfterMillis) {
+        super("Worker is busy, retry after " + retryAfterMillis + "ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public int getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
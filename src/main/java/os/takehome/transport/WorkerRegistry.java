@@ -0,0 +1,272 @@
+package os.takehome.transport;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.*;
+
+/*
+ * Реєстр вузлів обчислень. Кожен запит іде на здоровий вузол з найменшою кількістю запитів у польоті
+ * відносно його місткості. Вузол, до якого не вдалося під'єднатися, виключається, доки не відповість на PING.
+ * Вузол, що відповів BUSY, не отримує запитів протягом вказаної ним затримки; запит переходить на інший
+ * вузол або чекає, поки хоч один звільниться. Якщо з'єднання обірвалося, поки запит виконувався, запит
+ * повторюється на вузлі, який його ще не втрачав. Помилка обчислення, тайм-аут чи скасування не повторюються.
+ * Підключення блокуються, тож повтори і перевірки вузлів виконуються в пулі connector; prober лише планує їх.
+ *
+ * Формат -Dtaskmanager.workers: host:port[*місткість],... наприклад "localhost:9000*4,localhost:9100*2"
+ */
+public class WorkerRegistry implements Closeable {
+    private static final long PROBE_TIMEOUT_MS = 2000;
+    private static final int MAX_BUSY_RETRIES = Integer.getInteger("taskmanager.workers.busyRetries", 50);
+
+    private final List<Worker> workers;
+    private final ConnectionPool connectionPool;
+    private final AtomicInteger rotation;
+    private final ScheduledExecutorService prober;
+    private final ExecutorService connector;
+    private final Set<Worker> probing;
+
+    public WorkerRegistry(List<Worker> workers, ConnectionPool connectionPool) {
+        this(workers, connectionPool, Long.getLong("taskmanager.pool.healthCheckMs", 5000L));
+    }
+
+    public WorkerRegistry(List<Worker> workers, ConnectionPool connectionPool, long probeIntervalMs) {
+        if (workers.isEmpty()) throw new IllegalArgumentException("At least one worker is required");
+        this.workers = List.copyOf(workers);
+        this.connectionPool = connectionPool;
+        this.rotation = new AtomicInteger();
+        this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "worker-prober");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.connector = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "worker-connect");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.probing = ConcurrentHashMap.newKeySet();
+        prober.scheduleWithFixedDelay(this::probeUnhealthy, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static List<Worker> parse(String spec) {
+        List<Worker> workers = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            item = item.trim();
+            if (item.isEmpty()) continue;
+            int star = item.indexOf('*');
+            String address = star < 0 ? item : item.substring(0, star);
+            int capacity = star < 0 ? 1 : Integer.parseInt(item.substring(star + 1).trim());
+            int colon = address.lastIndexOf(':');
+            if (colon <= 0) throw new IllegalArgumentException("Invalid worker address: " + item);
+            workers.add(new Worker(new Endpoint(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1))), capacity));
+        }
+        return workers;
+    }
+
+    // Відправляє запит на найменш завантажений вузол; якщо з'єднання не вдається, пробує наступний
+    public <T> CompletableFuture<T> dispatch(Function<ClientConnection, CompletableFuture<T>> call) {
+        return dispatch(call, null);
+    }
+
+    // avoid — вузли, що вже виконують цей запит (дубль при хеджуванні). Їх обираємо, лише коли інших вільних немає,
+    // і тоді дубль іде іншим з'єднанням пулу. Вузол, що отримав запит, додається до avoid
+    public <T> CompletableFuture<T> dispatch(Function<ClientConnection, CompletableFuture<T>> call, Set<Worker> avoid) {
+        Request<T> request = new Request<>(call, avoid);
+        attempt(request);
+        return request.result;
+    }
+
+    private <T> void attempt(Request<T> request) {
+        CompletableFuture<T> result = request.result;
+        if (result.isDone()) return;
+        IOException lastFailure = null;
+        Set<Worker> tried = new HashSet<>(request.lost);
+        Worker worker;
+        while ((worker = select(tried, request.avoid)) != null) {
+            tried.add(worker);
+            ClientConnection connection;
+            try {
+                connection = connectionPool.lease(worker.getEndpoint());
+            } catch (IOException e) {
+                markDown(worker, e);
+                lastFailure = e;
+                continue;
+            }
+            Worker chosen = worker;
+            chosen.started();
+            if (request.avoid != null) {
+                request.avoid.add(chosen);
+            }
+            CompletableFuture<T> response = request.call.apply(connection);
+            // Тайм-аут або скасування результату має дійти до вузла як CANCEL
+            result.whenComplete((value, error) -> {
+                if (error != null) response.completeExceptionally(error);
+            });
+            response.whenComplete((value, error) -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                chosen.finished(cause);
+                if (cause instanceof WorkerBusyException && request.busyRetries < MAX_BUSY_RETRIES) {
+                    chosen.markBusy(((WorkerBusyException) cause).getRetryAfterMillis());
+                    request.busyRetries++;
+                    retryLater(request);
+                } else if (cause != null && !result.isDone() && !connection.isOpen()) {
+                    // З'єднання обірвалося посеред запиту: вузол міг упасти, повторюємо на іншому
+                    request.lost.add(chosen);
+                    request.lostCause = cause;
+                    retry(request);
+                } else if (cause != null) {
+                    result.completeExceptionally(cause);
+                } else {
+                    result.complete(value);
+                }
+            });
+            return;
+        }
+        if (lastFailure == null && hasHealthyWorker(request.lost)) {
+            // Усі здорові вузли зайняті: чекаємо, поки звільниться перший
+            retryLater(request);
+            return;
+        }
+        result.completeExceptionally(lastFailure != null ? lastFailure
+                : request.lostCause != null ? request.lostCause : new IOException("No healthy workers available"));
+    }
+
+    // Спроба може блокуватися на підключенні, тож не виконується ні в потоці читання з'єднання, ні в prober
+    private <T> void retry(Request<T> request) {
+        try {
+            connector.execute(() -> attempt(request));
+        } catch (RejectedExecutionException e) {
+            request.result.completeExceptionally(new IOException("Worker registry is closed"));
+        }
+    }
+
+    private <T> void retryLater(Request<T> request) {
+        long delayNanos = Long.MAX_VALUE;
+        long now = System.nanoTime();
+        for (Worker worker : workers) {
+            if (worker.isHealthy()) {
+                delayNanos = Math.min(delayNanos, Math.max(0, worker.getBusyUntilNanos() - now));
+            }
+        }
+        if (delayNanos == Long.MAX_VALUE) delayNanos = 0;
+        try {
+            prober.schedule(() -> retry(request), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            request.result.completeExceptionally(new IOException("Worker registry is closed"));
+        }
+    }
+
+    // Підключається до всіх здорових вузлів паралельно і повертається, коли кожен готовий або виключений
+    public void warm() {
+        List<CompletableFuture<Void>> warming = new ArrayList<>();
+        for (Worker worker : workers) {
+            if (!worker.isHealthy()) continue;
+            warming.add(connectionPool.warmAsync(worker.getEndpoint()).exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                markDown(worker, cause instanceof IOException ? (IOException) cause : new IOException(cause));
+                return null;
+            }));
+        }
+        CompletableFuture.allOf(warming.toArray(new CompletableFuture[0])).join();
+    }
+
+    private Worker select(Set<Worker> excluded, Set<Worker> avoid) {
+        // Починаємо з різних позицій, щоб рівні за навантаженням вузли отримували запити по черзі
+        int start = Math.floorMod(rotation.getAndIncrement(), workers.size());
+        Worker best = null;
+        boolean bestAvoided = true;
+        for (int i = 0; i < workers.size(); i++) {
+            Worker candidate = workers.get((start + i) % workers.size());
+            if (!candidate.isHealthy() || candidate.isBusy() || excluded.contains(candidate)) continue;
+            boolean avoided = avoid != null && avoid.contains(candidate);
+            if (best == null || (bestAvoided && !avoided) || (bestAvoided == avoided && candidate.load() < best.load())) {
+                best = candidate;
+                bestAvoided = avoided;
+            }
+        }
+        return best;
+    }
+
+    private void markDown(Worker worker, IOException cause) {
+        if (worker.isHealthy()) {
+            worker.setHealthy(false);
+            // Пул не повинен безперервно перепідключатися до вузла, який не відповідає; повернення перевіряє prober
+            connectionPool.evict(worker.getEndpoint());
+            System.err.println("Worker " + worker.getEndpoint() + " is down: " + cause.getMessage());
+        }
+    }
+
+    // Кожен вузол перевіряється окремо, тож недоступний вузол не затримує перевірку решти
+    private void probeUnhealthy() {
+        for (Worker worker : workers) {
+            if (worker.isHealthy() || !probing.add(worker)) continue;
+            try {
+                connector.execute(() -> probe(worker));
+            } catch (RejectedExecutionException e) {
+                probing.remove(worker);
+            }
+        }
+    }
+
+    private void probe(Worker worker) {
+        try {
+            connectionPool.lease(worker.getEndpoint()).ping()
+                    .orTimeout(PROBE_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .whenComplete((v, e) -> {
+                        probing.remove(worker);
+                        if (e == null) {
+                            worker.setHealthy(true);
+                            System.out.println("Worker " + worker.getEndpoint() + " is back");
+                        }
+                    });
+        } catch (IOException e) {
+            // Ще недоступний, перевіримо наступного разу
+            probing.remove(worker);
+        }
+    }
+
+    private boolean hasHealthyWorker(Set<Worker> excluded) {
+        for (Worker worker : workers) {
+            if (worker.isHealthy() && !excluded.contains(worker)) return true;
+        }
+        return false;
+    }
+
+    public List<Worker> getWorkers() {
+        return workers;
+    }
+
+    public int getHealthyCount() {
+        int healthy = 0;
+        for (Worker worker : workers) {
+            if (worker.isHealthy()) healthy++;
+        }
+        return healthy;
+    }
+
+    @Override
+    public void close() {
+        prober.shutdownNow();
+        connector.shutdownNow();
+    }
+
+    // Стан одного запиту між спробами на різних вузлах
+    private static final class Request<T> {
+        private final Function<ClientConnection, CompletableFuture<T>> call;
+        private final CompletableFuture<T> result;
+        private final Set<Worker> avoid;
+        // Вузли, з'єднання з якими обірвалося під час цього запиту
+        private final Set<Worker> lost;
+        private volatile Throwable lostCause;
+        private volatile int busyRetries;
+
+        Request(Function<ClientConnection, CompletableFuture<T>> call, Set<Worker> avoid) {
+            this.call = call;
+            this.result = new CompletableFuture<>();
+            this.avoid = avoid;
+            this.lost = ConcurrentHashMap.newKeySet();
+        }
+    }
+}
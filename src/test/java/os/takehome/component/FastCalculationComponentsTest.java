@@ -0,0 +1,142 @@
+package os.takehome.component;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastCalculationComponentsTest {
+    private final FastFactorialComponent factorial = new FastFactorialComponent();
+    private final FastFibonacciComponent fibonacci = new FastFibonacciComponent();
+    private final FastPrimeCheckComponent prime = new FastPrimeCheckComponent();
+    private final FastSqrtComponent sqrt = new FastSqrtComponent();
+
+    private static BigInteger referenceFactorial(int n) {
+        BigInteger result = BigInteger.ONE;
+        for (int i = 2; i <= n; i++) {
+            result = result.multiply(BigInteger.valueOf(i));
+        }
+        return result;
+    }
+
+    private static BigInteger referenceFibonacci(int n) {
+        BigInteger previous = BigInteger.ZERO, current = BigInteger.ONE;
+        for (int i = 0; i < n; i++) {
+            BigInteger next = previous.add(current);
+            previous = current;
+            current = next;
+        }
+        return previous;
+    }
+
+    // Точний результат — Long, доки вміщується, далі BigInteger
+    private static void assertExact(BigInteger expected, Number actual) {
+        if (expected.bitLength() < Long.SIZE) {
+            assertInstanceOf(Long.class, actual);
+            assertEquals(expected.longValueExact(), actual.longValue());
+        } else {
+            assertInstanceOf(BigInteger.class, actual);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void factorialMatchesReference() {
+        for (int n = 0; n <= 300; n++) {
+            assertExact(referenceFactorial(n), factorial.calculateExact(n));
+        }
+        // Межі блоків бінарного розбиття і множників, що переповнюють частковий добуток long
+        for (int n : new int[]{1000, 1023, 1024, 4097}) {
+            assertEquals(referenceFactorial(n), factorial.calculateExact(n));
+        }
+    }
+
+    @Test
+    void factorialCrossesFromLongToBigInteger() {
+        assertEquals(2432902008176640000L, factorial.calculateExact(20));
+        assertEquals(referenceFactorial(21), factorial.calculateExact(21));
+        // calculate множить double послідовно, тож похибка накопичується в останніх знаках
+        double largest = referenceFactorial(170).doubleValue();
+        assertEquals(largest, factorial.calculate(170), largest * 1e-13);
+        assertEquals(Double.POSITIVE_INFINITY, factorial.calculate(171));
+        assertThrows(IllegalArgumentException.class,
+                () -> factorial.calculateExact(FastCalculationComponents.MAX_FACTORIAL_INPUT + 1));
+    }
+
+    @Test
+    void fibonacciMatchesReference() {
+        for (int n = 0; n <= 300; n++) {
+            assertExact(referenceFibonacci(n), fibonacci.calculateExact(n));
+        }
+        for (int n : new int[]{1000, 1024, 4097, 10000}) {
+            assertEquals(referenceFibonacci(n), fibonacci.calculateExact(n));
+        }
+    }
+
+    @Test
+    void fibonacciCrossesFromLongToBigInteger() {
+        assertEquals(7540113804746346429L, fibonacci.calculateExact(92));
+        assertEquals(referenceFibonacci(93), fibonacci.calculateExact(93));
+        assertEquals(referenceFibonacci(1476).doubleValue(), fibonacci.calculate(1476));
+        assertTrue(Double.isFinite(fibonacci.calculate(1476)));
+        assertEquals(Double.POSITIVE_INFINITY, fibonacci.calculate(1477));
+        assertThrows(IllegalArgumentException.class,
+                () -> fibonacci.calculateExact(FastCalculationComponents.MAX_FIBONACCI_INPUT + 1));
+    }
+
+    @Test
+    void primeCheckMatchesReference() {
+        for (int n = 0; n <= 100_000; n++) {
+            assertEquals(BigInteger.valueOf(n).isProbablePrime(50), FastPrimeCheckComponent.isPrime(n), "n = " + n);
+        }
+    }
+
+    // Сильні псевдопрості за основою 2 і числа Кармайкла відсіюються основами 7 і 61; верх діапазону int
+    @Test
+    void primeCheckRejectsPseudoprimesAndCoversIntRange() {
+        for (int n : new int[]{561, 1105, 1729, 2047, 3277, 4033, 4681, 8321, 25326001, 1373653, 2147395600}) {
+            assertEquals(0L, prime.calculateExact(n), "n = " + n);
+        }
+        for (int n = Integer.MAX_VALUE; n > Integer.MAX_VALUE - 1000; n--) {
+            assertEquals(BigInteger.valueOf(n).isProbablePrime(50), FastPrimeCheckComponent.isPrime(n), "n = " + n);
+        }
+        assertEquals(1.0, prime.calculate(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void sqrtOfPerfectSquareIsExact() {
+        for (long root : new long[]{0, 1, 2, 3, 1000, 46340}) {
+            Number result = sqrt.calculateExact((int) (root * root));
+            assertInstanceOf(Long.class, result);
+            assertEquals(root, result);
+        }
+    }
+
+    // Поруч із точними квадратами цілий корінь не зсувається через округлення double
+    @Test
+    void sqrtOfNonPerfectSquareIsCorrectlyRounded() {
+        for (int n : new int[]{2, 3, 8, 99, 1_000_001, 2147395599, 2147395601, Integer.MAX_VALUE}) {
+            Number result = sqrt.calculateExact(n);
+            assertInstanceOf(Double.class, result);
+            assertEquals(Math.sqrt(n), result);
+        }
+        for (long root = 1; root <= 46340; root += 97) {
+            assertEquals(root - 1, FastSqrtComponent.isqrt(root * root - 1));
+            assertEquals(root, FastSqrtComponent.isqrt(root * root));
+        }
+    }
+
+    // Від'ємні входи поводяться так само, як у профілі з імітацією: F і P дають 1 і 0, B повертає вхід
+    @Test
+    void negativeInputs() {
+        assertEquals(1L, factorial.calculateExact(-3));
+        assertEquals(1.0, factorial.calculate(-3));
+        assertEquals(-3L, fibonacci.calculateExact(-3));
+        assertEquals(-3.0, fibonacci.calculate(-3));
+        assertEquals(0L, prime.calculateExact(-7));
+        assertEquals(0.0, prime.calculate(Integer.MIN_VALUE));
+        assertTrue(Double.isNaN(sqrt.calculateExact(-4).doubleValue()));
+        assertTrue(Double.isNaN(sqrt.calculate(-4)));
+    }
+}
@@ -0,0 +1,183 @@
+package os.takehome.component;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+    private static final long NO_TTL = 0;
+
+    @Test
+    void secondLookupIsAHit() {
+        ResultCache cache = new ResultCache(16, NO_TTL);
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals(9, cache.get('S', 81, input -> { calls.incrementAndGet(); return 9; }));
+        assertEquals(9, cache.get('S', 81, input -> { calls.incrementAndGet(); return -1; }));
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+
+        // Той самий вхід іншого калькулятора — інший ключ
+        assertNull(cache.getIfPresent('F', 81));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        ResultCache cache = new ResultCache(2, NO_TTL);
+        cache.put('F', 1, 1L);
+        cache.put('F', 2, 2L);
+        assertEquals(1L, cache.getIfPresent('F', 1));
+        cache.put('F', 3, 6L);
+        assertTrue(cache.contains('F', 1));
+        assertFalse(cache.contains('F', 2));
+        assertTrue(cache.contains('F', 3));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void expiredEntryIsDroppedOnLookup() throws InterruptedException {
+        ResultCache cache = new ResultCache(16, 20);
+        cache.put('P', 7, 1.0);
+        Thread.sleep(60);
+        assertFalse(cache.contains('P', 7));
+        assertNull(cache.getIfPresent('P', 7));
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void onlyResultsUpTo65536BitsAreStored() {
+        ResultCache cache = new ResultCache(16, NO_TTL);
+        cache.put('F', 1, BigInteger.ONE.shiftLeft(65535));
+        cache.put('F', 2, BigInteger.ONE.shiftLeft(65536));
+        assertTrue(cache.contains('F', 1));
+        assertFalse(cache.contains('F', 2));
+
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            cache.get('B', 3, input -> { calls.incrementAndGet(); return BigInteger.ONE.shiftLeft(70000); });
+        }
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void concurrentSyncRequestsShareOneComputation() throws Exception {
+        ResultCache cache = new ResultCache(16, NO_TTL);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Number> first = executor.submit(() -> cache.get('F', 10, input -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return 3628800L;
+            }));
+            started.await();
+            Future<Number> second = executor.submit(() -> cache.get('F', 10, input -> {
+                calls.incrementAndGet();
+                return -1L;
+            }));
+            while (cache.getCoalesced() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            assertEquals(3628800L, first.get(5, TimeUnit.SECONDS));
+            assertEquals(3628800L, second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getCoalesced());
+    }
+
+    @Test
+    void asyncRequestsShareOneComputation() {
+        ResultCache cache = new ResultCache(16, NO_TTL);
+        List<CompletableFuture<Number>> sources = new ArrayList<>();
+        CompletableFuture<Double> first = cache.getAsync('S', 16, input -> track(sources), Number::doubleValue);
+        CompletableFuture<Number> second = cache.getAsync('S', 16, input -> track(sources), value -> value);
+        assertEquals(1, sources.size());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getCoalesced());
+
+        sources.get(0).complete(4L);
+        assertEquals(4.0, first.join());
+        assertEquals(4L, second.join());
+        assertEquals(4.0, cache.getAsync('S', 16, input -> track(sources), Number::doubleValue).join());
+        assertEquals(1, sources.size());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void cancellingOneWaiterKeepsTheComputationForTheOthers() {
+        ResultCache cache = new ResultCache(16, NO_TTL);
+        List<CompletableFuture<Number>> sources = new ArrayList<>();
+        CompletableFuture<Double> first = cache.getAsync('P', 97, input -> track(sources), Number::doubleValue);
+        CompletableFuture<Double> second = cache.getAsync('P', 97, input -> track(sources), Number::doubleValue);
+
+        assertTrue(first.cancel(true));
+        assertFalse(sources.get(0).isCancelled());
+        sources.get(0).complete(1.0);
+        assertEquals(1.0, second.join());
+        assertTrue(first.isCancelled());
+    }
+
+    @Test
+    void computationIsCancelledOnceEveryWaiterCancelled() {
+        ResultCache cache = new ResultCache(16, NO_TTL);
+        List<CompletableFuture<Number>> sources = new ArrayList<>();
+        CompletableFuture<Double> first = cache.getAsync('F', 30, input -> track(sources), Number::doubleValue);
+        CompletableFuture<Double> second = cache.getAsync('F', 30, input -> track(sources), Number::doubleValue);
+
+        first.cancel(true);
+        second.cancel(true);
+        assertTrue(sources.get(0).isCancelled());
+
+        // Скасоване обчислення не дістається новому запиту: він запускає власне
+        CompletableFuture<Double> third = cache.getAsync('F', 30, input -> track(sources), Number::doubleValue);
+        assertEquals(2, sources.size());
+        sources.get(1).complete(832040L);
+        assertEquals(832040.0, third.join());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.getCoalesced());
+        assertTrue(cache.contains('F', 30));
+    }
+
+    @Test
+    void failedComputationIsNotCached() {
+        ResultCache cache = new ResultCache(16, NO_TTL);
+        List<CompletableFuture<Number>> sources = new ArrayList<>();
+        CompletableFuture<Double> result = cache.getAsync('B', 5, input -> track(sources), Number::doubleValue);
+        sources.get(0).completeExceptionally(new IllegalArgumentException("bad input"));
+        CompletionException error = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        assertFalse(cache.contains('B', 5));
+        assertEquals(0, cache.size());
+    }
+
+    private static CompletableFuture<Number> track(List<CompletableFuture<Number>> sources) {
+        CompletableFuture<Number> source = new CompletableFuture<>();
+        sources.add(source);
+        return source;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package os.takehome.taskmanager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+    private static final String ENGINE = "fast";
+
+    @TempDir
+    Path directory;
+
+    // Відтворення в рядки, щоб порівнювати і порядок, і вміст записів
+    private static final class Recorder implements Journal.Visitor {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void group(int group, Integer timeLimit, int weight, Integer quota) {
+            records.add("group " + group + " limit " + timeLimit + " weight " + weight + " quota " + quota);
+        }
+
+        @Override
+        public void component(int group, int index, char symbol, Integer timeLimit, Integer source) {
+            records.add("component " + group + "/" + index + " " + symbol + " limit " + timeLimit + " source " + source);
+        }
+
+        @Override
+        public void run(int group) {
+            records.add("run " + group);
+        }
+
+        @Override
+        public void result(int group, int index, int input, Number value) {
+            records.add("result " + group + "/" + index + " " + input + " = " + value);
+        }
+
+        @Override
+        public void batchResult(int group, int index, double[] values) {
+            records.add("batch " + group + "/" + index + " = " + Arrays.toString(values));
+        }
+    }
+
+    private List<String> replay(Path path) throws IOException {
+        Recorder recorder = new Recorder();
+        Journal.open(path, ENGINE, recorder).close();
+        return recorder.records;
+    }
+
+    @Test
+    void replaysRecordsInWriteOrder() throws IOException {
+        Path path = directory.resolve("journal");
+        try (Journal journal = Journal.open(path, ENGINE, new Recorder())) {
+            journal.recordGroup(1, null, 1, null);
+            journal.recordComponent(1, 0, 'F', null, null);
+            journal.recordRun(1);
+            journal.recordResult(1, 0, 5, 5L);
+        }
+        assertEquals(List.of(
+                "group 1 limit null weight 1 quota null",
+                "component 1/0 F limit null source null",
+                "run 1",
+                "result 1/0 5 = 5"), replay(path));
+    }
+
+    // group 1; new F; new B; run 5; await; limit 0 5; journal compact — компонент переписано після результату
+    @Test
+    void compactionPutsComponentsBeforeTheirResults() throws IOException {
+        Path path = directory.resolve("journal");
+        try (Journal journal = Journal.open(path, ENGINE, new Recorder())) {
+            journal.recordGroup(2, null, 1, null);
+            journal.recordGroup(1, null, 1, null);
+            journal.recordComponent(1, 0, 'F', null, null);
+            journal.recordComponent(1, 1, 'B', null, null);
+            journal.recordRun(1);
+            journal.recordResult(1, 1, 5, 55L);
+            journal.recordResult(1, 0, 5, 5L);
+            journal.recordBatchResult(1, 1, new double[]{1.5, 2.5});
+            journal.recordComponent(1, 0, 'F', 5, null);
+            journal.recordGroup(1, 10, 3, 2);
+            journal.compact();
+            assertEquals(10 + ENGINE.length(), journal.getSizeBytes() - journal.getLiveBytes());
+        }
+        assertEquals(List.of(
+                "group 1 limit 10 weight 3 quota 2",
+                "group 2 limit null weight 1 quota null",
+                "component 1/0 F limit 5 source null",
+                "component 1/1 B limit null source null",
+                "result 1/0 5 = 5",
+                "batch 1/1 = [1.5, 2.5]"), replay(path));
+    }
+
+    @Test
+    void compactionDropsResultsOfEarlierRuns() throws IOException {
+        Path path = directory.resolve("journal");
+        try (Journal journal = Journal.open(path, ENGINE, new Recorder())) {
+            journal.recordGroup(1, null, 1, null);
+            journal.recordComponent(1, 0, 'S', null, null);
+            journal.recordResult(1, 0, 4, 2.0);
+            journal.recordRun(1);
+            journal.compact();
+        }
+        assertEquals(List.of(
+                "group 1 limit null weight 1 quota null",
+                "component 1/0 S limit null source null"), replay(path));
+    }
+
+    // Відтворення зупиняється на пошкодженому записі; новий запис на його місці не відкриває старий хвіст
+    @Test
+    void recordAfterDamagedRecordEndsTheJournal() throws IOException {
+        Path path = directory.resolve("journal");
+        try (Journal journal = Journal.open(path, ENGINE, new Recorder())) {
+            journal.recordGroup(1, null, 1, null);
+            journal.recordComponent(1, 0, 'F', null, null);
+            journal.recordComponent(1, 1, 'B', null, null);
+        }
+        // Тип запису компонента 0: заголовок, запис групи (довжина, тип, 4 int), довжина компонента
+        long type = 10 + ENGINE.length() + (Integer.BYTES + 1 + 4 * Integer.BYTES) + Integer.BYTES;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{99}), type);
+        }
+        try (Journal journal = Journal.open(path, ENGINE, new Recorder())) {
+            journal.recordComponent(1, 2, 'P', null, null);
+        }
+        assertEquals(List.of(
+                "group 1 limit null weight 1 quota null",
+                "component 1/2 P limit null source null"), replay(path));
+    }
+
+    // Журнал версії 1 без ваги й квоти в записах груп переписується в поточну версію
+    @Test
+    void versionOneJournalIsUpgraded() throws IOException {
+        Path path = directory.resolve("journal");
+        byte[] name = ENGINE.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer old = ByteBuffer.allocate(64);
+        old.putInt(0x544D4A31).putInt(1).putShort((short) name.length).put(name);
+        old.putInt(1 + 2 * Integer.BYTES).put((byte) 1).putInt(1).putInt(10);
+        old.putInt(1 + 2 * Integer.BYTES).put((byte) 1).putInt(2).putInt(-1);
+        Files.write(path, Arrays.copyOf(old.array(), old.position() + Integer.BYTES));
+
+        try (Journal journal = Journal.open(path, ENGINE, new Recorder())) {
+            journal.recordComponent(1, 0, 'F', null, null);
+            journal.recordGroup(2, null, 4, 3);
+        }
+        assertEquals(2, ByteBuffer.wrap(Files.readAllBytes(path)).getInt(4));
+        assertEquals(List.of(
+                "group 1 limit 10 weight 1 quota null",
+                "group 2 limit null weight 1 quota null",
+                "component 1/0 F limit null source null",
+                "group 2 limit null weight 4 quota 3"), replay(path));
+    }
+
+    // Після перезапуску відтворені записи живі, тож стиснення не вважає їх сміттям
+    @Test
+    void replayedRecordsAreLive() throws IOException {
+        Path path = directory.resolve("journal");
+        long liveBytes;
+        try (Journal journal = Journal.open(path, ENGINE, new Recorder())) {
+            journal.recordGroup(1, null, 1, null);
+            journal.recordComponent(1, 0, 'F', null, null);
+            journal.recordComponent(1, 0, 'F', 5, null);
+            liveBytes = journal.getLiveBytes();
+        }
+        try (Journal journal = Journal.open(path, ENGINE, new Recorder())) {
+            assertEquals(liveBytes, journal.getLiveBytes());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package os.takehome.transport;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.math.*;
+import java.nio.*;
+import java.nio.charset.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameCodecTest {
+    private static Frame roundTrip(Frame frame) throws IOException {
+        ByteBuffer encoded = FrameCodec.encode(frame);
+        Frame decoded = FrameCodec.decode(encoded);
+        assertNotNull(decoded);
+        assertFalse(encoded.hasRemaining());
+        assertEquals(frame.getType(), decoded.getType());
+        assertEquals(frame.getFlags(), decoded.getFlags());
+        assertEquals(frame.getRequestId(), decoded.getRequestId());
+        return decoded;
+    }
+
+    @Test
+    void singleRequestAndResultSurviveRoundTrip() throws IOException {
+        Frame request = roundTrip(Frame.request(7, 3, 12, 'F', 40, (byte) (Frame.FLAG_EXACT | Frame.FLAG_PROGRESS)));
+        assertEquals(3, request.getGroup());
+        assertEquals(12, request.getComponent());
+        assertEquals('F', request.getSymbol());
+        assertEquals(40, request.getInput());
+
+        assertEquals(2.5, roundTrip(Frame.result(8, 2.5)).getValue());
+        BigInteger big = BigInteger.ONE.shiftLeft(200).negate().add(BigInteger.valueOf(12345));
+        assertEquals(big, roundTrip(Frame.bigResult(9, big)).getBigValue());
+    }
+
+    @Test
+    void batchFramesSurviveRoundTrip() throws IOException {
+        int[] inputs = {1, 2, 3, Integer.MAX_VALUE, -4};
+        Frame request = roundTrip(Frame.batchRequest(11, 2, 5, 'B', inputs, Frame.NO_FLAGS));
+        assertEquals(2, request.getGroup());
+        assertEquals(5, request.getComponent());
+        assertEquals('B', request.getSymbol());
+        assertArrayEquals(inputs, request.getInputs());
+
+        double[] values = {1.0, Double.NaN, -0.5, Double.MAX_VALUE};
+        Frame result = roundTrip(Frame.batchResult(11, 256, values));
+        assertEquals(256, result.getOffset());
+        assertArrayEquals(values, result.getValues());
+
+        assertArrayEquals(new int[0], roundTrip(Frame.batchRequest(12, 0, 0, 'S', new int[0], Frame.NO_FLAGS)).getInputs());
+    }
+
+    @Test
+    void controlFramesSurviveRoundTrip() throws IOException {
+        Frame progress = roundTrip(Frame.progress(21, 17, 1.4142, 1e-9));
+        assertEquals(17, progress.getIteration());
+        assertEquals(1.4142, progress.getValue());
+        assertEquals(1e-9, progress.getResidual());
+
+        roundTrip(Frame.cancel(22));
+        roundTrip(Frame.ping(23));
+        roundTrip(Frame.pong(23));
+        assertEquals(150, roundTrip(Frame.busy(24, 150)).getRetryAfterMillis());
+        assertEquals("Невідомий символ: X", roundTrip(Frame.error(25, "Невідомий символ: X")).getMessage());
+    }
+
+    // Межа 0xFFFF байтів припадає на середину двобайтового символу: він відкидається цілком
+    @Test
+    void longErrorMessageIsCutOnCharacterBoundary() throws IOException {
+        String message = "ї".repeat(0x8000);
+        String decoded = roundTrip(Frame.error(31, message)).getMessage();
+        assertEquals(0xFFFE, decoded.getBytes(StandardCharsets.UTF_8).length);
+        assertTrue(message.startsWith(decoded));
+        assertFalse(decoded.contains("\uFFFD"));
+    }
+
+    // Кадри кількох запитів ідуть одним потоком; кожен декодується зі своїм id, неповний кадр чекає решти байтів
+    @Test
+    void pipelinedFramesDecodeInOrder() throws IOException {
+        Frame[] frames = {
+                Frame.request(101, 0, 0, 'P', 97, Frame.NO_FLAGS),
+                Frame.progress(102, 3, 0.5, 0.1),
+                Frame.result(101, 1.0),
+                Frame.cancel(102),
+                Frame.error(103, "boom"),
+        };
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Frame frame : frames) {
+            FrameCodec.write(out, frame);
+        }
+        byte[] stream = bytes.toByteArray();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(stream));
+        for (Frame frame : frames) {
+            Frame decoded = FrameCodec.read(in);
+            assertEquals(frame.getType(), decoded.getType());
+            assertEquals(frame.getRequestId(), decoded.getRequestId());
+        }
+        assertEquals(-1, in.read());
+
+        ByteBuffer buffer = ByteBuffer.wrap(stream, 0, stream.length - 1);
+        for (int i = 0; i < frames.length - 1; i++) {
+            assertEquals(frames[i].getRequestId(), FrameCodec.decode(buffer).getRequestId());
+        }
+        int position = buffer.position();
+        assertNull(FrameCodec.decode(buffer));
+        assertEquals(position, buffer.position());
+    }
+
+    @Test
+    void invalidLengthIsRejected() {
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).putInt(FrameCodec.MAX_FRAME_SIZE + 1).flip();
+        assertThrows(IOException.class, () -> FrameCodec.decode(buffer));
+    }
+}